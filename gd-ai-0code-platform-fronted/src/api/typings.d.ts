@@ -26,6 +26,7 @@ declare namespace API {
   type AppAddRequest = {
     appName?: string
     initPrompt?: string
+    codeGenType?: string
   }
 
   type AppAdminQueryRequest = {
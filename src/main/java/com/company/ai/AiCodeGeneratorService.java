@@ -3,6 +3,7 @@ package com.company.ai;
 
 import com.company.ai.model.HtmlCodeResult;
 import com.company.ai.model.MultiFileCodeResult;
+import com.company.ai.model.ProjectCodeResult;
 import dev.langchain4j.service.SystemMessage;
 import reactor.core.publisher.Flux;
 
@@ -26,6 +27,15 @@ public interface AiCodeGeneratorService {
     @SystemMessage(fromResource = "prompt/codegen-multi-file-system-prompt.txt")
     MultiFileCodeResult generateMultiFileCode(String userMessage);
 
+    /**
+     * 生成多文件项目代码
+     *
+     * @param userMessage 用户消息
+     * @return 生成的代码结果
+     */
+    @SystemMessage(fromResource = "prompt/codegen-project-system-prompt.txt")
+    ProjectCodeResult generateProjectCode(String userMessage);
+
     /**
      * 流式生成 HTML 代码
      * @param userMessage 用户消息
@@ -41,4 +51,12 @@ public interface AiCodeGeneratorService {
      */
     @SystemMessage(fromResource = "prompt/codegen-multi-file-system-prompt.txt")
     Flux<String> generateMultiFileCodeStream(String userMessage);
+
+    /**
+     * 流式生成多文件项目代码
+     * @param userMessage 用户消息
+     * @return 生成的代码结果
+     */
+    @SystemMessage(fromResource = "prompt/codegen-project-system-prompt.txt")
+    Flux<String> generateProjectCodeStream(String userMessage);
 }
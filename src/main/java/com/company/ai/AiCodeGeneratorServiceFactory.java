@@ -1,12 +1,20 @@
 package com.company.ai;
 
+import com.company.ai.routing.ModelEndpoint;
+import com.company.ai.routing.RoutingStreamingChatModel;
+import com.company.config.ModelRoutingProperties;
+import dev.langchain4j.http.client.jdk.JdkHttpClient;
 import dev.langchain4j.model.chat.ChatModel;
 import dev.langchain4j.model.chat.StreamingChatModel;
+import dev.langchain4j.model.openai.OpenAiStreamingChatModel;
 import dev.langchain4j.service.AiServices;
 import jakarta.annotation.Resource;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Configuration
 public class AiCodeGeneratorServiceFactory {
 
@@ -14,13 +22,38 @@ public class AiCodeGeneratorServiceFactory {
     private ChatModel chatModel;
     @Resource
     private StreamingChatModel streamingChatModel;
+    @Resource
+    private ModelRoutingProperties modelRoutingProperties;
 
     @Bean
     public AiCodeGeneratorService aiCodeGeneratorService(){
         // 创建AiCodeGeneratorService实例
         return AiServices.builder(AiCodeGeneratorService.class)
                 .chatModel(chatModel)
-                .streamingChatModel(streamingChatModel)
+                .streamingChatModel(routedStreamingChatModel())
                 .build();
     }
+
+    /**
+     * 配置了额外端点时，流式生成在默认模型和这些端点之间按首 token 耗时路由
+     */
+    private StreamingChatModel routedStreamingChatModel() {
+        if (modelRoutingProperties.getEndpoints().isEmpty()) {
+            return streamingChatModel;
+        }
+        List<ModelEndpoint> endpoints = new ArrayList<>();
+        endpoints.add(new ModelEndpoint("default", streamingChatModel));
+        for (ModelRoutingProperties.Endpoint endpoint : modelRoutingProperties.getEndpoints()) {
+            // 类路径上同时有 JDK 和 Spring RestClient 两种 HTTP 客户端，需要明确指定
+            StreamingChatModel model = OpenAiStreamingChatModel.builder()
+                    .httpClientBuilder(JdkHttpClient.builder())
+                    .baseUrl(endpoint.getBaseUrl())
+                    .apiKey(endpoint.getApiKey())
+                    .modelName(endpoint.getModelName())
+                    .build();
+            endpoints.add(new ModelEndpoint(endpoint.getName(), model));
+        }
+        return new RoutingStreamingChatModel(endpoints, modelRoutingProperties.isHedgeEnabled(),
+                modelRoutingProperties.getHedgeMinDelayMillis(), modelRoutingProperties.getHedgeMaxDelayMillis());
+    }
 }
@@ -0,0 +1,18 @@
+package com.company.ai.model;
+
+import dev.langchain4j.model.output.structured.Description;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Description("生成一个多文件项目的结果")
+@Data
+public class ProjectCodeResult {
+
+    @Description("项目中的所有文件，入口文件为 index.html")
+    private List<ProjectFile> files = new ArrayList<>();
+
+    @Description("生成代码的描述")
+    private String description;
+}
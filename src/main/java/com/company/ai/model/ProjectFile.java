@@ -0,0 +1,19 @@
+package com.company.ai.model;
+
+import dev.langchain4j.model.output.structured.Description;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Description("项目中的一个文件")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProjectFile {
+
+    @Description("相对项目根目录的文件路径，如 src/components/header.js")
+    private String path;
+
+    @Description("文件内容")
+    private String content;
+}
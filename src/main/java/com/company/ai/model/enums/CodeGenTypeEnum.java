@@ -7,7 +7,8 @@ import lombok.Getter;
 @Getter
 public enum CodeGenTypeEnum {
     HTML("原生HTML模式","html"),
-    MULTI_FILE("多文件模式","multiFile");
+    MULTI_FILE("多文件模式","multiFile"),
+    PROJECT("项目模式","project");
 
     private final String text;
     private final String value;
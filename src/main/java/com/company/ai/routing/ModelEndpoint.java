@@ -0,0 +1,134 @@
+package com.company.ai.routing;
+
+import dev.langchain4j.model.chat.StreamingChatModel;
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * 一个模型服务端点及其最近的表现
+ * 记录最近若干次请求的首 token 耗时和成功/失败，连续失败达到阈值后熔断一段时间，期满后放行请求探测是否恢复。
+ * 统计在 this 上同步
+ */
+public class ModelEndpoint {
+
+    /**
+     * 统计的最近请求数
+     */
+    private static final int WINDOW_SIZE = 50;
+
+    /**
+     * 连续失败多少次后熔断
+     */
+    private static final int FAILURE_THRESHOLD = 3;
+
+    /**
+     * 熔断时长（毫秒）
+     */
+    private static final long OPEN_MILLIS = 30 * 1000L;
+
+    @Getter
+    private final String name;
+
+    @Getter
+    private final StreamingChatModel model;
+
+    /**
+     * 最近的首 token 耗时（毫秒），环形缓冲
+     */
+    private final long[] ttftMillis = new long[WINDOW_SIZE];
+
+    private int ttftCount;
+
+    private int ttftIndex;
+
+    /**
+     * 最近请求的结果（true 为失败），环形缓冲
+     */
+    private final boolean[] failures = new boolean[WINDOW_SIZE];
+
+    private int outcomeCount;
+
+    private int outcomeIndex;
+
+    private int failureCount;
+
+    private int consecutiveFailures;
+
+    private long openUntil;
+
+    public ModelEndpoint(String name, StreamingChatModel model) {
+        this.name = name;
+        this.model = model;
+    }
+
+    public synchronized void recordFirstToken(long millis) {
+        ttftMillis[ttftIndex] = millis;
+        ttftIndex = (ttftIndex + 1) % WINDOW_SIZE;
+        ttftCount = Math.min(ttftCount + 1, WINDOW_SIZE);
+    }
+
+    public synchronized void recordSuccess() {
+        recordOutcome(false);
+        consecutiveFailures = 0;
+        openUntil = 0;
+    }
+
+    public synchronized void recordFailure() {
+        recordOutcome(true);
+        if (++consecutiveFailures >= FAILURE_THRESHOLD) {
+            openUntil = System.currentTimeMillis() + OPEN_MILLIS;
+        }
+    }
+
+    /**
+     * 是否可用（未熔断或熔断已到期）
+     */
+    public synchronized boolean isHealthy() {
+        return System.currentTimeMillis() >= openUntil;
+    }
+
+    public synchronized double getErrorRate() {
+        return outcomeCount == 0 ? 0 : (double) failureCount / outcomeCount;
+    }
+
+    /**
+     * 最近首 token 耗时的分位数（毫秒），没有记录时返回 -1
+     *
+     * @param percentile 分位，如 0.95
+     */
+    public synchronized long getTtftPercentile(double percentile) {
+        if (ttftCount == 0) {
+            return -1;
+        }
+        long[] sorted = Arrays.copyOf(ttftMillis, ttftCount);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile * ttftCount) - 1;
+        return sorted[Math.max(0, Math.min(index, ttftCount - 1))];
+    }
+
+    /**
+     * 路由评分，越小越优先：首 token 耗时中位数按错误率加权；没有记录的端点为 0，优先尝试以获得数据
+     */
+    public synchronized double getScore() {
+        long median = getTtftPercentile(0.5);
+        return median < 0 ? 0 : median * (1 + 2 * getErrorRate());
+    }
+
+    private void recordOutcome(boolean failed) {
+        if (outcomeCount == WINDOW_SIZE && failures[outcomeIndex]) {
+            failureCount--;
+        }
+        failures[outcomeIndex] = failed;
+        if (failed) {
+            failureCount++;
+        }
+        outcomeIndex = (outcomeIndex + 1) % WINDOW_SIZE;
+        outcomeCount = Math.min(outcomeCount + 1, WINDOW_SIZE);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,364 @@
+package com.company.ai.routing;
+
+import dev.langchain4j.model.chat.Capability;
+import dev.langchain4j.model.chat.StreamingChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.request.ChatRequestParameters;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.chat.response.PartialResponse;
+import dev.langchain4j.model.chat.response.PartialResponseContext;
+import dev.langchain4j.model.chat.response.PartialThinking;
+import dev.langchain4j.model.chat.response.PartialThinkingContext;
+import dev.langchain4j.model.chat.response.StreamingChatResponseHandler;
+import dev.langchain4j.model.chat.response.StreamingHandle;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 多端点路由的流式模型
+ * 每次请求按最近的首 token 耗时和错误率选择最快的可用端点；首 token 之前失败时切换到下一个端点；
+ * 开启对冲时，首 token 在截止时间（该端点最近首 token 耗时的 p95，限制在上下限之间）内没有到达就向下一个端点再发一次请求，
+ * 先返回首 token 的请求胜出，其余请求立即取消（还没拿到取消句柄的在首次回调时取消）；切换端点时对冲计时按新端点重新开始。
+ * 首 token 之后的失败直接返回给调用方（已推送的内容无法撤回）
+ */
+@Slf4j
+public class RoutingStreamingChatModel implements StreamingChatModel {
+
+    private static final Scheduler TIMER = Schedulers.parallel();
+
+    private final List<ModelEndpoint> endpoints;
+
+    private final boolean hedgeEnabled;
+
+    private final long hedgeMinDelayMillis;
+
+    private final long hedgeMaxDelayMillis;
+
+    /**
+     * @param endpoints           端点，第一个提供默认请求参数
+     * @param hedgeEnabled        是否开启对冲请求
+     * @param hedgeMinDelayMillis 对冲截止时间下限（毫秒）
+     * @param hedgeMaxDelayMillis 对冲截止时间上限（毫秒），端点还没有首 token 记录时使用
+     */
+    public RoutingStreamingChatModel(List<ModelEndpoint> endpoints, boolean hedgeEnabled, long hedgeMinDelayMillis,
+                                     long hedgeMaxDelayMillis) {
+        if (endpoints.isEmpty()) {
+            throw new IllegalArgumentException("至少需要一个模型端点");
+        }
+        this.endpoints = List.copyOf(endpoints);
+        this.hedgeEnabled = hedgeEnabled;
+        this.hedgeMinDelayMillis = hedgeMinDelayMillis;
+        this.hedgeMaxDelayMillis = hedgeMaxDelayMillis;
+    }
+
+    @Override
+    public void chat(ChatRequest chatRequest, StreamingChatResponseHandler handler) {
+        new RoutedCall(chatRequest, handler, rankEndpoints()).start();
+    }
+
+    @Override
+    public ChatRequestParameters defaultRequestParameters() {
+        return endpoints.get(0).getModel().defaultRequestParameters();
+    }
+
+    @Override
+    public Set<Capability> supportedCapabilities() {
+        return endpoints.get(0).getModel().supportedCapabilities();
+    }
+
+    public List<ModelEndpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    /**
+     * 可用端点按评分排序，都不可用时仍按评分全部尝试
+     */
+    List<ModelEndpoint> rankEndpoints() {
+        List<ModelEndpoint> healthy = endpoints.stream().filter(ModelEndpoint::isHealthy).toList();
+        List<ModelEndpoint> ranked = new ArrayList<>(healthy.isEmpty() ? endpoints : healthy);
+        ranked.sort(Comparator.comparingDouble(ModelEndpoint::getScore));
+        return ranked;
+    }
+
+    private long hedgeDelayMillis(ModelEndpoint endpoint) {
+        long p95 = endpoint.getTtftPercentile(0.95);
+        if (p95 < 0) {
+            return hedgeMaxDelayMillis;
+        }
+        return Math.max(hedgeMinDelayMillis, Math.min(p95, hedgeMaxDelayMillis));
+    }
+
+    /**
+     * 一次调用方请求，可能对应多个端点上的请求；状态在 this 上同步，回调调用方在锁外进行
+     */
+    private class RoutedCall {
+
+        private final ChatRequest chatRequest;
+
+        private final StreamingChatResponseHandler handler;
+
+        private final List<ModelEndpoint> candidates;
+
+        private final List<Attempt> attempts = new ArrayList<>();
+
+        private int nextIndex;
+
+        private int running;
+
+        private Attempt winner;
+
+        private boolean finished;
+
+        private Disposable hedgeTimer;
+
+        private RoutedCall(ChatRequest chatRequest, StreamingChatResponseHandler handler, List<ModelEndpoint> candidates) {
+            this.chatRequest = chatRequest;
+            this.handler = handler;
+            this.candidates = candidates;
+        }
+
+        private void start() {
+            Attempt first;
+            synchronized (this) {
+                first = nextAttempt();
+                scheduleHedge(first);
+            }
+            first.send();
+        }
+
+        /**
+         * 按 attempt 的端点重新开始对冲计时，没有剩余端点时不计时
+         */
+        private void scheduleHedge(Attempt attempt) {
+            cancelHedge();
+            if (hedgeEnabled && nextIndex < candidates.size()) {
+                hedgeTimer = TIMER.schedule(this::onHedgeDeadline, hedgeDelayMillis(attempt.endpoint), TimeUnit.MILLISECONDS);
+            }
+        }
+
+        private void cancelHedge() {
+            if (hedgeTimer != null) {
+                hedgeTimer.dispose();
+                hedgeTimer = null;
+            }
+        }
+
+        private Attempt nextAttempt() {
+            if (nextIndex >= candidates.size()) {
+                return null;
+            }
+            running++;
+            Attempt attempt = new Attempt(this, candidates.get(nextIndex++));
+            attempts.add(attempt);
+            return attempt;
+        }
+
+        private void onHedgeDeadline() {
+            Attempt hedge;
+            synchronized (this) {
+                hedgeTimer = null;
+                if (winner != null || finished) {
+                    return;
+                }
+                hedge = nextAttempt();
+            }
+            if (hedge != null) {
+                log.info("模型首 token 超时，向 {} 发送对冲请求", hedge.endpoint);
+                hedge.send();
+            }
+        }
+
+        /**
+         * 第一个返回内容的请求胜出，其余进行中的请求取消
+         *
+         * @return attempt 是否为胜出的请求
+         */
+        private boolean claim(Attempt attempt) {
+            List<Attempt> losers = List.of();
+            synchronized (this) {
+                if (winner == null && !finished) {
+                    winner = attempt;
+                    cancelHedge();
+                    losers = attempts.stream().filter(other -> other != attempt).toList();
+                }
+                if (winner != attempt) {
+                    return false;
+                }
+            }
+            losers.forEach(Attempt::cancel);
+            return true;
+        }
+
+        private synchronized boolean finish(Attempt attempt) {
+            if (finished || winner != attempt) {
+                return false;
+            }
+            finished = true;
+            return true;
+        }
+
+        /**
+         * 首 token 之前失败：没有其他进行中的请求时换下一个端点，全部失败时把最后一个错误返回给调用方
+         */
+        private void onAttemptFailed(Attempt attempt, Throwable error) {
+            Attempt next = null;
+            boolean failAll = false;
+            synchronized (this) {
+                if (finished) {
+                    return;
+                }
+                if (winner == attempt) {
+                    finished = true;
+                    failAll = true;
+                } else if (winner == null) {
+                    running--;
+                    if (running == 0) {
+                        next = nextAttempt();
+                        if (next == null) {
+                            finished = true;
+                            failAll = true;
+                            cancelHedge();
+                        } else {
+                            scheduleHedge(next);
+                        }
+                    }
+                }
+            }
+            if (next != null) {
+                log.warn("模型端点 {} 请求失败，切换到 {}", attempt.endpoint, next.endpoint, error);
+                next.send();
+            } else if (failAll) {
+                handler.onError(error);
+            }
+        }
+    }
+
+    /**
+     * 发往一个端点的请求
+     */
+    private static class Attempt implements StreamingChatResponseHandler {
+
+        private final RoutedCall call;
+
+        private final ModelEndpoint endpoint;
+
+        private long startNanos;
+
+        private volatile boolean firstEventSeen;
+
+        /**
+         * 对冲落败后被取消，之后的回调都忽略
+         */
+        private volatile boolean cancelled;
+
+        /**
+         * 首次回调带来的取消句柄
+         */
+        private volatile StreamingHandle streamingHandle;
+
+        private Attempt(RoutedCall call, ModelEndpoint endpoint) {
+            this.call = call;
+            this.endpoint = endpoint;
+        }
+
+        private void send() {
+            startNanos = System.nanoTime();
+            try {
+                endpoint.getModel().chat(call.chatRequest, this);
+            } catch (RuntimeException e) {
+                onError(e);
+            }
+        }
+
+        @Override
+        public void onPartialResponse(String partialResponse) {
+            if (accept(null)) {
+                call.handler.onPartialResponse(partialResponse);
+            }
+        }
+
+        @Override
+        public void onPartialResponse(PartialResponse partialResponse, PartialResponseContext context) {
+            if (accept(context.streamingHandle())) {
+                call.handler.onPartialResponse(partialResponse, context);
+            }
+        }
+
+        @Override
+        public void onPartialThinking(PartialThinking partialThinking, PartialThinkingContext context) {
+            if (accept(context.streamingHandle())) {
+                call.handler.onPartialThinking(partialThinking, context);
+            }
+        }
+
+        @Override
+        public void onCompleteResponse(ChatResponse completeResponse) {
+            if (cancelled) {
+                return;
+            }
+            endpoint.recordSuccess();
+            // 没有返回任何内容就结束的请求也可以胜出
+            if (call.claim(this) && call.finish(this)) {
+                call.handler.onCompleteResponse(completeResponse);
+            }
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            if (cancelled) {
+                return;
+            }
+            endpoint.recordFailure();
+            call.onAttemptFailed(this, error);
+        }
+
+        /**
+         * 收到内容：记录首 token 耗时，落败的请求取消
+         *
+         * @param streamingHandle 取消句柄，模型不支持时为 null
+         * @return 内容是否转发给调用方
+         */
+        private boolean accept(StreamingHandle streamingHandle) {
+            if (streamingHandle != null) {
+                this.streamingHandle = streamingHandle;
+            }
+            if (cancelled) {
+                // 落败时还没有取消句柄，在这里补上取消
+                cancelStream();
+                return false;
+            }
+            if (!firstEventSeen) {
+                firstEventSeen = true;
+                endpoint.recordFirstToken((System.nanoTime() - startNanos) / 1_000_000L);
+            }
+            if (call.claim(this)) {
+                return true;
+            }
+            cancel();
+            return false;
+        }
+
+        /**
+         * 落败取消：之后的回调都忽略，已有取消句柄时立即断开上游
+         */
+        private void cancel() {
+            cancelled = true;
+            cancelStream();
+        }
+
+        private void cancelStream() {
+            StreamingHandle handle = streamingHandle;
+            if (handle != null && !handle.isCancelled()) {
+                handle.cancel();
+            }
+        }
+    }
+}
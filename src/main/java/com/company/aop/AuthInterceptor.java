@@ -64,6 +64,7 @@ public class AuthInterceptor {
 
         // 4. 通过UserService从请求中解析当前登录用户
         // 通常实现：从session、token或cookie中获取用户身份信息
+        // 解析结果记录在请求属性中，接口方法内再次获取登录用户时不会重复查询
         User loginUser = userService.getLoginUser(request);
 
         // 5. 将必需角色字符串转换为枚举类型
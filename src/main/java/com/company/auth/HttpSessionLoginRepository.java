@@ -0,0 +1,36 @@
+package com.company.auth;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+
+import static com.company.constant.UserConstant.USER_LOGIN_STATE;
+
+/**
+ * 使用容器的 HttpSession 保存登录态，只保存 {@link LoginSession} 而不是整个用户对象
+ */
+public class HttpSessionLoginRepository implements LoginSessionRepository {
+
+    @Override
+    public void save(LoginSession session, HttpServletRequest request, HttpServletResponse response) {
+        request.getSession().setAttribute(USER_LOGIN_STATE, session);
+    }
+
+    @Override
+    public LoginSession find(HttpServletRequest request) {
+        // 未登录的请求不创建 session
+        HttpSession httpSession = request.getSession(false);
+        if (httpSession == null) {
+            return null;
+        }
+        return httpSession.getAttribute(USER_LOGIN_STATE) instanceof LoginSession session ? session : null;
+    }
+
+    @Override
+    public void remove(HttpServletRequest request, HttpServletResponse response) {
+        HttpSession httpSession = request.getSession(false);
+        if (httpSession != null) {
+            httpSession.removeAttribute(USER_LOGIN_STATE);
+        }
+    }
+}
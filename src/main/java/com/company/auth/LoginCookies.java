@@ -0,0 +1,59 @@
+package com.company.auth;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+
+import java.time.Duration;
+
+/**
+ * 登录 Cookie 的读写
+ */
+public final class LoginCookies {
+
+    private LoginCookies() {
+    }
+
+    /**
+     * 读取 Cookie
+     *
+     * @param request 请求
+     * @param name    Cookie 名
+     * @return Cookie 值，没有时返回 null
+     */
+    public static String read(HttpServletRequest request, String name) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            for (Cookie cookie : cookies) {
+                if (name.equals(cookie.getName())) {
+                    return cookie.getValue();
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 写入 HttpOnly Cookie
+     *
+     * @param response 响应
+     * @param name     Cookie 名
+     * @param value    Cookie 值，为 null 时清除 Cookie
+     * @param maxAge   有效期，为 null 时为浏览器会话 Cookie
+     */
+    public static void write(HttpServletResponse response, String name, String value, Duration maxAge) {
+        ResponseCookie.ResponseCookieBuilder builder = ResponseCookie.from(name, value == null ? "" : value)
+                .httpOnly(true)
+                .path("/")
+                .sameSite("Lax");
+        if (value == null) {
+            builder.maxAge(Duration.ZERO);
+        } else if (maxAge != null) {
+            builder.maxAge(maxAge);
+        }
+        ResponseCookie cookie = builder.build();
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+    }
+}
@@ -0,0 +1,16 @@
+package com.company.auth;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * 登录态，只记录用户 id 和登录时的角色，用户信息按 id 查询
+ *
+ * @param userId   用户 id
+ * @param userRole 登录时的用户角色
+ */
+public record LoginSession(long userId, String userRole) implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+}
@@ -0,0 +1,36 @@
+package com.company.auth;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * 登录态存储
+ * 由 login.mode 配置选择实现：HttpSession（默认）、无状态签名令牌或堆外会话存储
+ */
+public interface LoginSessionRepository {
+
+    /**
+     * 保存登录态（登录）
+     *
+     * @param session  登录态
+     * @param request  请求
+     * @param response 响应，需要写 Cookie 的实现使用
+     */
+    void save(LoginSession session, HttpServletRequest request, HttpServletResponse response);
+
+    /**
+     * 读取当前请求的登录态
+     *
+     * @param request 请求
+     * @return 登录态，未登录或已失效返回 null
+     */
+    LoginSession find(HttpServletRequest request);
+
+    /**
+     * 删除当前请求的登录态（登出）
+     *
+     * @param request  请求
+     * @param response 响应
+     */
+    void remove(HttpServletRequest request, HttpServletResponse response);
+}
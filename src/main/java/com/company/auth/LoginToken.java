@@ -0,0 +1,13 @@
+package com.company.auth;
+
+/**
+ * 登录令牌中携带的信息
+ *
+ * @param keyVersion 签名密钥版本，更换密钥后旧版本的令牌全部失效
+ * @param userId     用户 id
+ * @param userRole   签发时的用户角色
+ * @param expiresAt  过期时间（秒）
+ * @param tokenId    令牌随机 id，登出时按它吊销
+ */
+public record LoginToken(int keyVersion, long userId, String userRole, long expiresAt, long tokenId) {
+}
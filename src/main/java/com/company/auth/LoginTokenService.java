@@ -0,0 +1,186 @@
+package com.company.auth;
+
+import cn.hutool.core.util.StrUtil;
+import com.company.config.LoginProperties;
+import com.company.constant.UserConstant;
+import com.company.model.enums.LoginModeEnum;
+import com.company.model.enums.UserRoleEnum;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * 无状态登录令牌
+ * 令牌为 Base64URL(载荷 + HMAC-SHA256 签名前 16 字节)，载荷依次为：
+ * 密钥版本(1) 用户 id(8) 角色(1) 过期时间秒(8) 令牌 id(8)，共 26 字节，编码后 56 个字符。
+ * 校验只做一次 HMAC，不查询会话；登出的令牌记录在本地的 {@link RevokedTokenFilter} 中。
+ * 多个节点需要配置相同的密钥（login.token.secret），未配置时启动时随机生成，重启后已签发的令牌失效
+ */
+@Slf4j
+public class LoginTokenService {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private static final int PAYLOAD_LENGTH = 26;
+
+    private static final int SIGNATURE_LENGTH = 16;
+
+    /**
+     * 吊销位图每代的位数（128KB），约十万次登出时误判率仍低于千分之一
+     */
+    private static final int REVOKED_FILTER_BITS = 1 << 20;
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final SecretKeySpec key;
+
+    private final int keyVersion;
+
+    private final long ttlSeconds;
+
+    private final RevokedTokenFilter revokedTokens;
+
+    public LoginTokenService(LoginProperties properties) {
+        this(secret(properties), properties.getToken().getKeyVersion(), properties.getToken().getTtlSeconds());
+    }
+
+    public LoginTokenService(byte[] secret, int keyVersion, long ttlSeconds) {
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+        this.keyVersion = keyVersion;
+        this.ttlSeconds = ttlSeconds;
+        this.revokedTokens = new RevokedTokenFilter(REVOKED_FILTER_BITS, ttlSeconds * 1000);
+    }
+
+    /**
+     * 为登录态签发令牌
+     *
+     * @param session 登录态
+     * @return 令牌
+     */
+    public String issue(LoginSession session) {
+        long expiresAt = System.currentTimeMillis() / 1000 + ttlSeconds;
+        LoginToken token = new LoginToken(keyVersion, session.userId(), session.userRole(), expiresAt, RANDOM.nextLong());
+        byte[] bytes = new byte[PAYLOAD_LENGTH + SIGNATURE_LENGTH];
+        UserRoleEnum role = UserRoleEnum.getEnumByValue(token.userRole());
+        ByteBuffer.wrap(bytes)
+                .put((byte) token.keyVersion())
+                .putLong(token.userId())
+                .put((byte) (role == null ? -1 : role.ordinal()))
+                .putLong(token.expiresAt())
+                .putLong(token.tokenId());
+        System.arraycopy(sign(bytes), 0, bytes, PAYLOAD_LENGTH, SIGNATURE_LENGTH);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * 校验令牌
+     *
+     * @param token 令牌
+     * @return 令牌信息，格式错误、签名不符、密钥版本不符、已过期或已吊销时返回 null
+     */
+    public LoginToken verify(String token) {
+        if (StrUtil.isBlank(token) || token.length() > 64) {
+            return null;
+        }
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(token);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (bytes.length != PAYLOAD_LENGTH + SIGNATURE_LENGTH) {
+            return null;
+        }
+        byte[] expected = sign(bytes);
+        byte[] actual = new byte[SIGNATURE_LENGTH];
+        System.arraycopy(bytes, PAYLOAD_LENGTH, actual, 0, SIGNATURE_LENGTH);
+        byte[] truncated = new byte[SIGNATURE_LENGTH];
+        System.arraycopy(expected, 0, truncated, 0, SIGNATURE_LENGTH);
+        if (!MessageDigest.isEqual(truncated, actual)) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int version = buffer.get() & 0xFF;
+        long userId = buffer.getLong();
+        int roleIndex = buffer.get();
+        long expiresAt = buffer.getLong();
+        long tokenId = buffer.getLong();
+        UserRoleEnum[] roles = UserRoleEnum.values();
+        if (version != keyVersion || roleIndex < 0 || roleIndex >= roles.length
+                || expiresAt <= System.currentTimeMillis() / 1000 || revokedTokens.isRevoked(tokenId)) {
+            return null;
+        }
+        return new LoginToken(version, userId, roles[roleIndex].getValue(), expiresAt, tokenId);
+    }
+
+    /**
+     * 吊销令牌（登出）
+     *
+     * @param token 令牌信息
+     */
+    public void revoke(LoginToken token) {
+        revokedTokens.revoke(token.tokenId());
+    }
+
+    /**
+     * 从请求中读取令牌：优先 Authorization: Bearer，其次 Cookie
+     *
+     * @param request 请求
+     * @return 令牌，没有时返回 null
+     */
+    public static String readToken(HttpServletRequest request) {
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization != null && authorization.startsWith(BEARER_PREFIX)) {
+            return authorization.substring(BEARER_PREFIX.length()).trim();
+        }
+        return LoginCookies.read(request, UserConstant.LOGIN_TOKEN_COOKIE);
+    }
+
+    /**
+     * 把令牌写入 HttpOnly Cookie
+     *
+     * @param response 响应
+     * @param token    令牌，为 null 时清除 Cookie
+     */
+    public void writeCookie(HttpServletResponse response, String token) {
+        LoginCookies.write(response, UserConstant.LOGIN_TOKEN_COOKIE, token, Duration.ofSeconds(ttlSeconds));
+    }
+
+    private byte[] sign(byte[] bytes) {
+        try {
+            // Mac 不是线程安全的，每次新建（开销为微秒级）
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            mac.update(bytes, 0, PAYLOAD_LENGTH);
+            return mac.doFinal();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("令牌签名失败", e);
+        }
+    }
+
+    private static byte[] secret(LoginProperties properties) {
+        String secret = properties.getToken().getSecret();
+        if (StrUtil.isNotBlank(secret)) {
+            return secret.getBytes(StandardCharsets.UTF_8);
+        }
+        if (LoginModeEnum.TOKEN.getValue().equals(properties.getMode())) {
+            log.warn("未配置登录令牌密钥（login.token.secret），使用随机密钥，多节点部署时令牌不能互认，重启后需要重新登录");
+        }
+        byte[] random = new byte[32];
+        RANDOM.nextBytes(random);
+        return random;
+    }
+}
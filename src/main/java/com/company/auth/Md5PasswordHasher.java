@@ -0,0 +1,40 @@
+package com.company.auth;
+
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.regex.Pattern;
+
+/**
+ * 旧的加盐 MD5 密码（固定盐值），只用于校验已有用户，登录成功后重新计算为当前算法
+ */
+public class Md5PasswordHasher implements PasswordHasher {
+
+    /**
+     * 盐值 混淆密码
+     */
+    private static final String SALT = "sgd";
+
+    private static final Pattern MD5_PATTERN = Pattern.compile("[0-9a-f]{32}");
+
+    @Override
+    public String hash(String password) {
+        return DigestUtils.md5DigestAsHex((SALT + password).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public boolean matches(String password, String stored) {
+        return MessageDigest.isEqual(hash(password).getBytes(StandardCharsets.US_ASCII), stored.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Override
+    public boolean supports(String stored) {
+        return stored != null && MD5_PATTERN.matcher(stored).matches();
+    }
+
+    @Override
+    public boolean needsRehash(String stored) {
+        return true;
+    }
+}
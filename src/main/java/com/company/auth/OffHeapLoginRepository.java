@@ -0,0 +1,466 @@
+package com.company.auth;
+
+import com.company.constant.UserConstant;
+import com.company.model.enums.UserRoleEnum;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 堆外会话存储
+ * 会话 id 为 16 字节随机数（Cookie 中为 22 个字符），每个会话只保存用户 id、角色和最后访问时间，占 32 字节；
+ * 按会话 id 分到若干段，每段是一张开放寻址的哈希表，各自加锁。内存按最大会话数一次性分配在堆外，
+ * 登录高峰不会增加堆内存和 GC 压力；满时先清理空闲会话，仍然满则淘汰最久未访问的会话。
+ * 配置持久化文件时哈希表直接映射到文件，重启后会话仍然有效
+ */
+@Slf4j
+public final class OffHeapLoginRepository implements LoginSessionRepository, Closeable {
+
+    /**
+     * 文件头："LSESSION"、格式版本、段数、每段槽数
+     */
+    private static final long MAGIC = 0x4C53455353494F4EL;
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int HEADER_BYTES = 64;
+
+    private static final int SLOT_BYTES = 32;
+
+    private static final int ID_HIGH = 0;
+
+    private static final int ID_LOW = 8;
+
+    private static final int USER_ID = 16;
+
+    private static final int LAST_ACCESS = 24;
+
+    private static final int ROLE = 28;
+
+    private static final int STATE = 29;
+
+    private static final byte EMPTY = 0;
+
+    private static final byte USED = 1;
+
+    private static final byte DELETED = 2;
+
+    private static final int STRIPES = 16;
+
+    /**
+     * 空闲会话清理间隔（秒）
+     */
+    private static final long SWEEP_INTERVAL_SECONDS = 60;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final long idleSeconds;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    private final FileChannel channel;
+
+    private final MappedByteBuffer mapped;
+
+    private final ScheduledExecutorService sweeper;
+
+    /**
+     * @param capacity    最大会话数
+     * @param idleSeconds 空闲过期时间（秒）
+     * @param file        持久化文件，为 null 时只保存在内存中
+     */
+    public OffHeapLoginRepository(int capacity, long idleSeconds, Path file) {
+        this.idleSeconds = idleSeconds;
+        int maxLive = Math.max(1, (capacity + STRIPES - 1) / STRIPES);
+        // 装载率不超过 0.75
+        int slots = maxLive + maxLive / 3 + 1;
+        long stripeBytes = (long) slots * SLOT_BYTES;
+        long totalBytes = HEADER_BYTES + stripeBytes * STRIPES;
+        if (totalBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("会话容量过大：" + capacity);
+        }
+        ByteBuffer buffer;
+        boolean restored = false;
+        if (file == null) {
+            this.channel = null;
+            this.mapped = null;
+            buffer = ByteBuffer.allocateDirect((int) totalBytes);
+        } else {
+            try {
+                Path parent = file.toAbsolutePath().getParent();
+                if (parent != null) {
+                    Files.createDirectories(parent);
+                }
+                this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                restored = channel.size() == totalBytes && headerMatches(channel, slots);
+                if (!restored) {
+                    // 容量变化或文件损坏时丢弃原有会话
+                    channel.truncate(0);
+                }
+                this.mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, totalBytes);
+                buffer = mapped;
+            } catch (IOException e) {
+                throw new UncheckedIOException("打开会话文件失败：" + file, e);
+            }
+        }
+        buffer.putLong(0, MAGIC).putInt(8, FORMAT_VERSION).putInt(12, STRIPES).putInt(16, slots);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(buffer.slice((int) (HEADER_BYTES + stripeBytes * i), (int) stripeBytes), slots, maxLive);
+            if (restored) {
+                stripes[i].recount();
+            }
+        }
+        if (restored) {
+            evictIdle();
+            log.info("从 {} 恢复会话 {} 个", file, size());
+        }
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "login-session-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(this::sweep, SWEEP_INTERVAL_SECONDS, SWEEP_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void save(LoginSession session, HttpServletRequest request, HttpServletResponse response) {
+        String sessionId = create(session);
+        // 与 HttpSession 一样使用浏览器会话 Cookie，过期由服务端按空闲时间判断
+        LoginCookies.write(response, UserConstant.LOGIN_SESSION_COOKIE, sessionId, null);
+    }
+
+    @Override
+    public LoginSession find(HttpServletRequest request) {
+        return get(LoginCookies.read(request, UserConstant.LOGIN_SESSION_COOKIE));
+    }
+
+    @Override
+    public void remove(HttpServletRequest request, HttpServletResponse response) {
+        delete(LoginCookies.read(request, UserConstant.LOGIN_SESSION_COOKIE));
+        LoginCookies.write(response, UserConstant.LOGIN_SESSION_COOKIE, null, null);
+    }
+
+    /**
+     * 创建会话
+     *
+     * @param session 登录态
+     * @return 会话 id
+     */
+    public String create(LoginSession session) {
+        long high = RANDOM.nextLong();
+        long low = RANDOM.nextLong();
+        UserRoleEnum role = UserRoleEnum.getEnumByValue(session.userRole());
+        stripe(low).insert(high, low, session.userId(), (byte) (role == null ? -1 : role.ordinal()), nowSeconds());
+        byte[] id = ByteBuffer.allocate(16).putLong(high).putLong(low).array();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id);
+    }
+
+    /**
+     * 读取会话并刷新最后访问时间
+     *
+     * @param sessionId 会话 id
+     * @return 登录态，不存在或已过期返回 null
+     */
+    public LoginSession get(String sessionId) {
+        ByteBuffer id = decode(sessionId);
+        if (id == null) {
+            return null;
+        }
+        long high = id.getLong();
+        long low = id.getLong();
+        return stripe(low).get(high, low, nowSeconds());
+    }
+
+    /**
+     * 删除会话
+     *
+     * @param sessionId 会话 id
+     */
+    public void delete(String sessionId) {
+        ByteBuffer id = decode(sessionId);
+        if (id != null) {
+            long high = id.getLong();
+            long low = id.getLong();
+            stripe(low).delete(high, low);
+        }
+    }
+
+    /**
+     * 当前会话数
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    /**
+     * 清理所有空闲过期的会话
+     *
+     * @return 清理的会话数
+     */
+    public int evictIdle() {
+        long now = nowSeconds();
+        int evicted = 0;
+        for (Stripe stripe : stripes) {
+            evicted += stripe.evictIdle(now);
+        }
+        return evicted;
+    }
+
+    @Override
+    public void close() {
+        sweeper.shutdownNow();
+        if (mapped != null) {
+            try {
+                mapped.force();
+                channel.close();
+            } catch (IOException e) {
+                log.warn("关闭会话文件失败", e);
+            }
+        }
+    }
+
+    private void sweep() {
+        try {
+            int evicted = evictIdle();
+            if (evicted > 0) {
+                log.debug("清理空闲会话 {} 个，剩余 {} 个", evicted, size());
+            }
+            if (mapped != null) {
+                mapped.force();
+            }
+        } catch (RuntimeException e) {
+            log.warn("清理会话失败", e);
+        }
+    }
+
+    private Stripe stripe(long low) {
+        return stripes[(int) Long.remainderUnsigned(low, STRIPES)];
+    }
+
+    private static ByteBuffer decode(String sessionId) {
+        if (sessionId == null || sessionId.length() != 22) {
+            return null;
+        }
+        try {
+            byte[] id = Base64.getUrlDecoder().decode(sessionId);
+            return id.length == 16 ? ByteBuffer.wrap(id) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static boolean headerMatches(FileChannel channel, int slots) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(20);
+        channel.read(header, 0);
+        return header.getLong(0) == MAGIC && header.getInt(8) == FORMAT_VERSION
+                && header.getInt(12) == STRIPES && header.getInt(16) == slots;
+    }
+
+    private static long nowSeconds() {
+        return System.currentTimeMillis() / 1000;
+    }
+
+    /**
+     * 一段开放寻址（线性探测）的哈希表，删除的槽位标记为 DELETED，过多时整理
+     */
+    private final class Stripe {
+
+        private final ByteBuffer buffer;
+
+        private final int slots;
+
+        private final int maxLive;
+
+        private int live;
+
+        private int deleted;
+
+        private Stripe(ByteBuffer buffer, int slots, int maxLive) {
+            this.buffer = buffer;
+            this.slots = slots;
+            this.maxLive = maxLive;
+        }
+
+        private synchronized void insert(long high, long low, long userId, byte role, long now) {
+            if (live >= maxLive && evictIdle(now) == 0) {
+                evictOldest();
+            }
+            if (live + deleted >= slots - slots / 8) {
+                compact();
+            }
+            int slot = start(high);
+            while (state(slot) == USED) {
+                slot = next(slot);
+            }
+            if (state(slot) == DELETED) {
+                deleted--;
+            }
+            int offset = slot * SLOT_BYTES;
+            buffer.putLong(offset + ID_HIGH, high)
+                    .putLong(offset + ID_LOW, low)
+                    .putLong(offset + USER_ID, userId)
+                    .putInt(offset + LAST_ACCESS, (int) now)
+                    .put(offset + ROLE, role)
+                    .put(offset + STATE, USED);
+            live++;
+        }
+
+        private synchronized LoginSession get(long high, long low, long now) {
+            int slot = find(high, low);
+            if (slot < 0) {
+                return null;
+            }
+            int offset = slot * SLOT_BYTES;
+            if (isIdle(offset, now)) {
+                remove(slot);
+                return null;
+            }
+            buffer.putInt(offset + LAST_ACCESS, (int) now);
+            int roleIndex = buffer.get(offset + ROLE);
+            UserRoleEnum[] roles = UserRoleEnum.values();
+            if (roleIndex < 0 || roleIndex >= roles.length) {
+                return null;
+            }
+            return new LoginSession(buffer.getLong(offset + USER_ID), roles[roleIndex].getValue());
+        }
+
+        private synchronized void delete(long high, long low) {
+            int slot = find(high, low);
+            if (slot >= 0) {
+                remove(slot);
+            }
+        }
+
+        private synchronized int size() {
+            return live;
+        }
+
+        private synchronized int evictIdle(long now) {
+            int evicted = 0;
+            for (int slot = 0; slot < slots; slot++) {
+                if (state(slot) == USED && isIdle(slot * SLOT_BYTES, now)) {
+                    remove(slot);
+                    evicted++;
+                }
+            }
+            return evicted;
+        }
+
+        /**
+         * 从文件恢复后重新统计
+         */
+        private synchronized void recount() {
+            live = 0;
+            deleted = 0;
+            for (int slot = 0; slot < slots; slot++) {
+                byte state = state(slot);
+                if (state == USED) {
+                    live++;
+                } else if (state == DELETED) {
+                    deleted++;
+                }
+            }
+        }
+
+        private void evictOldest() {
+            int oldest = -1;
+            long oldestAccess = Long.MAX_VALUE;
+            for (int slot = 0; slot < slots; slot++) {
+                if (state(slot) == USED) {
+                    long lastAccess = Integer.toUnsignedLong(buffer.getInt(slot * SLOT_BYTES + LAST_ACCESS));
+                    if (lastAccess < oldestAccess) {
+                        oldest = slot;
+                        oldestAccess = lastAccess;
+                    }
+                }
+            }
+            if (oldest >= 0) {
+                remove(oldest);
+            }
+        }
+
+        /**
+         * 清除 DELETED 标记，把存活的会话重新插入
+         */
+        private void compact() {
+            List<byte[]> entries = new ArrayList<>(live);
+            for (int slot = 0; slot < slots; slot++) {
+                if (state(slot) == USED) {
+                    byte[] entry = new byte[SLOT_BYTES];
+                    buffer.get(slot * SLOT_BYTES, entry);
+                    entries.add(entry);
+                }
+            }
+            for (int slot = 0; slot < slots; slot++) {
+                buffer.put(slot * SLOT_BYTES + STATE, EMPTY);
+            }
+            for (byte[] entry : entries) {
+                int slot = start(ByteBuffer.wrap(entry).getLong(ID_HIGH));
+                while (state(slot) == USED) {
+                    slot = next(slot);
+                }
+                buffer.put(slot * SLOT_BYTES, entry);
+            }
+            deleted = 0;
+        }
+
+        private int find(long high, long low) {
+            int slot = start(high);
+            for (int i = 0; i < slots; i++) {
+                byte state = state(slot);
+                if (state == EMPTY) {
+                    return -1;
+                }
+                int offset = slot * SLOT_BYTES;
+                if (state == USED && buffer.getLong(offset + ID_HIGH) == high && buffer.getLong(offset + ID_LOW) == low) {
+                    return slot;
+                }
+                slot = next(slot);
+            }
+            return -1;
+        }
+
+        private void remove(int slot) {
+            buffer.put(slot * SLOT_BYTES + STATE, DELETED);
+            live--;
+            deleted++;
+        }
+
+        private boolean isIdle(int offset, long now) {
+            return now - Integer.toUnsignedLong(buffer.getInt(offset + LAST_ACCESS)) > idleSeconds;
+        }
+
+        private byte state(int slot) {
+            return buffer.get(slot * SLOT_BYTES + STATE);
+        }
+
+        private int start(long high) {
+            return (int) Long.remainderUnsigned(high, slots);
+        }
+
+        private int next(int slot) {
+            return slot + 1 == slots ? 0 : slot + 1;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.company.auth;
+
+/**
+ * 密码哈希算法
+ * 保存的哈希值自带算法标识和参数，校验时按保存的值选择算法，更换算法或调整参数后旧密码仍可校验
+ */
+public interface PasswordHasher {
+
+    /**
+     * 计算密码的哈希值（含随机盐和参数）
+     *
+     * @param password 明文密码
+     * @return 保存到数据库的哈希值
+     */
+    String hash(String password);
+
+    /**
+     * 校验密码
+     *
+     * @param password 明文密码
+     * @param stored   保存的哈希值
+     * @return 是否匹配
+     */
+    boolean matches(String password, String stored);
+
+    /**
+     * 保存的哈希值是否由该算法生成
+     *
+     * @param stored 保存的哈希值
+     */
+    boolean supports(String stored);
+
+    /**
+     * 保存的哈希值是否需要按当前参数重新计算（如成本参数低于当前配置）
+     *
+     * @param stored 保存的哈希值
+     */
+    boolean needsRehash(String stored);
+}
@@ -0,0 +1,139 @@
+package com.company.auth;
+
+import com.company.config.PasswordHashProperties;
+import com.company.exception.BusinessException;
+import com.company.exception.ErrorCode;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 密码哈希与校验
+ * 新密码使用当前算法（PBKDF2，迭代次数可配置），同时可以校验旧的 MD5 密码。
+ * 哈希计算在固定大小的线程池中进行，排队满时直接拒绝：登录高峰时最多占用这几个核心，
+ * 不会让请求线程（虚拟线程的载体线程）都忙于计算哈希，其他接口照常响应
+ */
+@Slf4j
+public class PasswordService {
+
+    private static final AtomicInteger THREAD_INDEX = new AtomicInteger();
+
+    private final PasswordHasher currentHasher;
+
+    /**
+     * 当前算法在前，按保存的哈希值选择
+     */
+    private final List<PasswordHasher> hashers;
+
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * 随机密码按当前算法计算的哈希值，首次使用时计算
+     */
+    private volatile String dummyHash;
+
+    public PasswordService(PasswordHashProperties properties) {
+        this(new Pbkdf2PasswordHasher(properties.getIterations()), properties.getThreads(), properties.getQueue());
+    }
+
+    public PasswordService(PasswordHasher currentHasher, int threads, int queueSize) {
+        this.currentHasher = currentHasher;
+        this.hashers = List.of(currentHasher, new Md5PasswordHasher());
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + THREAD_INDEX.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * 计算新密码的哈希值
+     *
+     * @param password 明文密码
+     * @return 保存到数据库的哈希值
+     */
+    public String hash(String password) {
+        return execute(() -> currentHasher.hash(password));
+    }
+
+    /**
+     * 校验密码
+     *
+     * @param password 明文密码
+     * @param stored   保存的哈希值
+     * @return 是否匹配，无法识别的哈希值返回 false
+     */
+    public boolean matches(String password, String stored) {
+        PasswordHasher hasher = hasherFor(stored);
+        if (hasher == null) {
+            return false;
+        }
+        return execute(() -> hasher.matches(password, stored));
+    }
+
+    /**
+     * 保存的哈希值是否需要按当前算法和参数重新计算
+     *
+     * @param stored 保存的哈希值
+     */
+    public boolean needsRehash(String stored) {
+        PasswordHasher hasher = hasherFor(stored);
+        return hasher != currentHasher || currentHasher.needsRehash(stored);
+    }
+
+    /**
+     * 固定的占位哈希值（当前算法和参数），账号不存在时用它校验一次，使耗时与密码错误时相同
+     */
+    public String getDummyHash() {
+        String hash = dummyHash;
+        if (hash == null) {
+            synchronized (this) {
+                hash = dummyHash;
+                if (hash == null) {
+                    hash = hash(UUID.randomUUID().toString());
+                    dummyHash = hash;
+                }
+            }
+        }
+        return hash;
+    }
+
+    private PasswordHasher hasherFor(String stored) {
+        for (PasswordHasher hasher : hashers) {
+            if (hasher.supports(stored)) {
+                return hasher;
+            }
+        }
+        return null;
+    }
+
+    private <T> T execute(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            log.warn("密码校验排队已满，拒绝请求");
+            throw new BusinessException(ErrorCode.TOO_MANY_REQUEST, "登录请求过多，请稍后再试");
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "密码校验被中断");
+        } catch (ExecutionException e) {
+            log.error("密码哈希计算失败", e.getCause());
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "密码校验失败");
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.company.auth;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 已吊销令牌的布隆过滤器（本地位图）
+ * 登出时记录令牌 id，校验令牌时查询，内存固定不随登出次数增长。
+ * 位图分两代轮换：每代覆盖一个令牌有效期，记录在上一代中的令牌到丢弃时一定已经过期；
+ * 误判只会让极少数未登出的令牌失效（需要重新登录），不会放行已登出的令牌。
+ * 只记录本节点的登出，其他节点上的同一令牌仍有效直到过期
+ */
+public class RevokedTokenFilter {
+
+    /**
+     * 每个令牌 id 设置的位数
+     */
+    private static final int HASH_COUNT = 4;
+
+    private final int bitMask;
+
+    private final long generationMillis;
+
+    private volatile Generation current;
+
+    private volatile Generation previous;
+
+    /**
+     * @param bits             每代的位数，向上取整为 2 的幂
+     * @param generationMillis 每代的时长（不小于令牌有效期）
+     */
+    public RevokedTokenFilter(int bits, long generationMillis) {
+        int size = Integer.highestOneBit(Math.max(64, bits - 1)) << 1;
+        this.bitMask = size - 1;
+        this.generationMillis = generationMillis;
+        this.current = new Generation(size, System.currentTimeMillis());
+        this.previous = new Generation(size, 0);
+    }
+
+    /**
+     * 记录吊销的令牌
+     *
+     * @param tokenId 令牌 id
+     */
+    public void revoke(long tokenId) {
+        Generation generation = rotateIfNeeded(System.currentTimeMillis());
+        long hash = tokenId;
+        for (int i = 0; i < HASH_COUNT; i++) {
+            hash = mix(hash);
+            generation.set((int) hash & bitMask);
+        }
+    }
+
+    /**
+     * 令牌是否（可能）已被吊销
+     *
+     * @param tokenId 令牌 id
+     */
+    public boolean isRevoked(long tokenId) {
+        rotateIfNeeded(System.currentTimeMillis());
+        return current.contains(tokenId, bitMask) || previous.contains(tokenId, bitMask);
+    }
+
+    private Generation rotateIfNeeded(long now) {
+        Generation generation = current;
+        if (now - generation.startedAt < generationMillis) {
+            return generation;
+        }
+        synchronized (this) {
+            if (now - current.startedAt >= generationMillis) {
+                previous = current;
+                current = new Generation(bitMask + 1, now);
+            }
+            return current;
+        }
+    }
+
+    /**
+     * splitmix64 的混合函数，每轮得到一个新的哈希值
+     */
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static final class Generation {
+
+        private final AtomicLongArray words;
+
+        private final long startedAt;
+
+        private Generation(int bits, long startedAt) {
+            this.words = new AtomicLongArray(bits >>> 6);
+            this.startedAt = startedAt;
+        }
+
+        private void set(int bit) {
+            long mask = 1L << bit;
+            int index = bit >>> 6;
+            long word;
+            do {
+                word = words.get(index);
+            } while ((word & mask) == 0 && !words.compareAndSet(index, word, word | mask));
+        }
+
+        private boolean contains(long tokenId, int bitMask) {
+            long hash = tokenId;
+            for (int i = 0; i < HASH_COUNT; i++) {
+                hash = mix(hash);
+                int bit = (int) hash & bitMask;
+                if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.company.auth;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * 使用无状态签名令牌保存登录态，服务端不保存任何会话，登出的令牌记录在本地吊销位图中
+ */
+public class TokenLoginRepository implements LoginSessionRepository {
+
+    private final LoginTokenService loginTokenService;
+
+    public TokenLoginRepository(LoginTokenService loginTokenService) {
+        this.loginTokenService = loginTokenService;
+    }
+
+    @Override
+    public void save(LoginSession session, HttpServletRequest request, HttpServletResponse response) {
+        loginTokenService.writeCookie(response, loginTokenService.issue(session));
+    }
+
+    @Override
+    public LoginSession find(HttpServletRequest request) {
+        LoginToken token = loginTokenService.verify(LoginTokenService.readToken(request));
+        return token == null ? null : new LoginSession(token.userId(), token.userRole());
+    }
+
+    @Override
+    public void remove(HttpServletRequest request, HttpServletResponse response) {
+        LoginToken token = loginTokenService.verify(LoginTokenService.readToken(request));
+        if (token != null) {
+            loginTokenService.revoke(token);
+        }
+        loginTokenService.writeCookie(response, null);
+    }
+}
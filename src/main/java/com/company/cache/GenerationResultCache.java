@@ -0,0 +1,314 @@
+package com.company.cache;
+
+import cn.hutool.core.convert.Convert;
+import cn.hutool.core.io.resource.ResourceUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import com.company.ai.model.enums.CodeGenTypeEnum;
+import com.company.config.GenerationCacheProperties;
+import com.company.constant.AppConstant;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 代码生成结果缓存
+ * 按 生成类型 + 系统提示词版本 + 规范化后的提示词 缓存模型的完整输出，命中时把输出切段模拟流式返回，不再调用模型：
+ * 第一级按提示词摘要精确匹配；第二级（可选，相似度阈值大于 0 时开启）按字符二元组向量的余弦相似度匹配近似的提示词。
+ * 系统提示词修改后版本变化，旧结果自然失效。同时受条目数和总字符数限制，超出时按 LRU 淘汰，所有访问在 this 上同步
+ */
+@Slf4j
+public class GenerationResultCache {
+
+    /**
+     * 默认最大条目数
+     */
+    private static final int DEFAULT_MAX_ENTRIES = 512;
+
+    /**
+     * 默认最大总字符数（约 64MB）
+     */
+    private static final long DEFAULT_MAX_CHARS = 32L * 1024 * 1024;
+
+    /**
+     * 单条输出最大字符数，更长的输出不缓存，生成时也不再继续收集
+     */
+    private static final int MAX_ENTRY_CHARS = 512 * 1024;
+
+    /**
+     * 模拟流式返回时每段的字符数
+     */
+    private static final int REPLAY_CHUNK_CHARS = 256;
+
+    /**
+     * 相似度向量维数
+     */
+    private static final int VECTOR_DIMENSIONS = 512;
+
+    /**
+     * 近似匹配要求两个提示词长度相差不超过该比例，避免短提示词误命中
+     */
+    private static final double MAX_LENGTH_RATIO = 1.25;
+
+    private final boolean enabled;
+
+    private final double similarityThreshold;
+
+    private final long ttlMillis;
+
+    private final int maxEntries;
+
+    private final long maxChars;
+
+    /**
+     * 各生成类型系统提示词内容的摘要
+     */
+    private final Map<CodeGenTypeEnum, String> promptVersions = new EnumMap<>(CodeGenTypeEnum.class);
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+
+    private long totalChars;
+
+    private final LongAdder exactHits = new LongAdder();
+
+    private final LongAdder similarHits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    public GenerationResultCache(GenerationCacheProperties properties) {
+        this(properties.isEnabled(), properties.getSimilarity(), AppConstant.GENERATION_CACHE_TTL_MILLIS,
+                DEFAULT_MAX_ENTRIES, DEFAULT_MAX_CHARS);
+    }
+
+    public GenerationResultCache(boolean enabled, double similarityThreshold, long ttlMillis, int maxEntries, long maxChars) {
+        this.enabled = enabled;
+        this.similarityThreshold = similarityThreshold;
+        this.ttlMillis = ttlMillis;
+        this.maxEntries = maxEntries;
+        this.maxChars = maxChars;
+        promptVersions.put(CodeGenTypeEnum.HTML, promptVersion("prompt/codegen-html-system-prompt.txt"));
+        promptVersions.put(CodeGenTypeEnum.MULTI_FILE, promptVersion("prompt/codegen-multi-file-system-prompt.txt"));
+        promptVersions.put(CodeGenTypeEnum.PROJECT, promptVersion("prompt/codegen-project-system-prompt.txt"));
+    }
+
+    /**
+     * 查找缓存的生成结果
+     *
+     * @param userMessage     用户提示词
+     * @param codeGenTypeEnum 生成类型
+     * @return 模型的完整输出，未命中返回 null
+     */
+    public String get(String userMessage, CodeGenTypeEnum codeGenTypeEnum) {
+        if (!enabled) {
+            return null;
+        }
+        String prompt = normalize(userMessage);
+        String scope = scope(codeGenTypeEnum);
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            String key = scope + DigestUtil.sha256Hex(prompt);
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (!isExpired(entry, now)) {
+                    exactHits.increment();
+                    return entry.output;
+                }
+                entries.remove(key);
+                totalChars -= entry.output.length();
+            }
+            if (similarityThreshold > 0) {
+                Entry similar = findSimilar(scope, prompt, now);
+                if (similar != null) {
+                    similarHits.increment();
+                    return similar.output;
+                }
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * 缓存一次成功生成的完整输出
+     *
+     * @param userMessage     用户提示词
+     * @param codeGenTypeEnum 生成类型
+     * @param output          模型的完整输出
+     */
+    public void put(String userMessage, CodeGenTypeEnum codeGenTypeEnum, String output) {
+        if (output == null || output.length() > getMaxEntryChars()) {
+            return;
+        }
+        String prompt = normalize(userMessage);
+        String scope = scope(codeGenTypeEnum);
+        float[] vector = similarityThreshold > 0 ? vectorize(prompt) : null;
+        Entry entry = new Entry(scope, prompt, vector, output, System.currentTimeMillis());
+        synchronized (this) {
+            Entry previous = entries.put(scope + DigestUtil.sha256Hex(prompt), entry);
+            if (previous != null) {
+                totalChars -= previous.output.length();
+            }
+            totalChars += output.length();
+            Iterator<Entry> iterator = entries.values().iterator();
+            while ((entries.size() > maxEntries || totalChars > maxChars) && iterator.hasNext()) {
+                totalChars -= iterator.next().output.length();
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * 可以缓存的单条输出最大字符数，未开启缓存时为 0
+     */
+    public long getMaxEntryChars() {
+        return enabled ? Math.min(maxChars, MAX_ENTRY_CHARS) : 0;
+    }
+
+    public long getExactHitCount() {
+        return exactHits.sum();
+    }
+
+    public long getSimilarHitCount() {
+        return similarHits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * 把缓存的输出切段，作为模型流式输出的替代
+     *
+     * @param output 模型的完整输出
+     */
+    public static Flux<String> replay(String output) {
+        List<String> chunks = new ArrayList<>(output.length() / REPLAY_CHUNK_CHARS + 1);
+        int start = 0;
+        while (start < output.length()) {
+            int end = Math.min(start + REPLAY_CHUNK_CHARS, output.length());
+            // 不拆开代理对
+            if (end < output.length() && Character.isHighSurrogate(output.charAt(end - 1))) {
+                end--;
+            }
+            chunks.add(output.substring(start, end));
+            start = end;
+        }
+        return Flux.fromIterable(chunks);
+    }
+
+    /**
+     * 规范化提示词：全角转半角、小写、合并空白、去掉结尾的标点
+     */
+    static String normalize(String userMessage) {
+        String text = Convert.toDBC(userMessage).toLowerCase().replaceAll("\\s+", " ").trim();
+        int end = text.length();
+        while (end > 0 && isTrailingPunctuation(text.charAt(end - 1))) {
+            end--;
+        }
+        return text.substring(0, end);
+    }
+
+    private static boolean isTrailingPunctuation(char c) {
+        return ".!?。！？~～ ".indexOf(c) >= 0;
+    }
+
+    private String scope(CodeGenTypeEnum codeGenTypeEnum) {
+        return codeGenTypeEnum.getValue() + ":" + promptVersions.get(codeGenTypeEnum) + ":";
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return now - entry.createdAt > ttlMillis;
+    }
+
+    /**
+     * 同一生成类型和提示词版本下相似度最高且超过阈值的条目
+     */
+    private Entry findSimilar(String scope, String prompt, long now) {
+        float[] vector = vectorize(prompt);
+        Entry best = null;
+        double bestScore = similarityThreshold;
+        for (Entry entry : entries.values()) {
+            if (entry.vector == null || !entry.scope.equals(scope) || isExpired(entry, now)) {
+                continue;
+            }
+            double ratio = (double) Math.max(entry.prompt.length(), prompt.length()) / Math.max(1, Math.min(entry.prompt.length(), prompt.length()));
+            if (ratio > MAX_LENGTH_RATIO) {
+                continue;
+            }
+            double score = 0;
+            for (int i = 0; i < VECTOR_DIMENSIONS; i++) {
+                score += vector[i] * entry.vector[i];
+            }
+            if (score >= bestScore) {
+                bestScore = score;
+                best = entry;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 提示词的字符二元组哈希向量（已归一化，点积即余弦相似度），中文按字、英文按字母都能比较
+     */
+    static float[] vectorize(String prompt) {
+        float[] vector = new float[VECTOR_DIMENSIONS];
+        if (prompt.length() == 1) {
+            vector[Math.floorMod(prompt.charAt(0), VECTOR_DIMENSIONS)] = 1;
+            return vector;
+        }
+        for (int i = 0; i + 1 < prompt.length(); i++) {
+            int hash = prompt.charAt(i) * 31 + prompt.charAt(i + 1);
+            vector[Math.floorMod(hash * 0x9E3779B9, VECTOR_DIMENSIONS)] += 1;
+        }
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        if (norm > 0) {
+            float scale = (float) (1 / Math.sqrt(norm));
+            for (int i = 0; i < VECTOR_DIMENSIONS; i++) {
+                vector[i] *= scale;
+            }
+        }
+        return vector;
+    }
+
+    private static String promptVersion(String resource) {
+        try {
+            return DigestUtil.sha256Hex(ResourceUtil.readUtf8Str(resource)).substring(0, 12);
+        } catch (RuntimeException e) {
+            log.warn("读取系统提示词失败：{}", resource, e);
+            return "unknown";
+        }
+    }
+
+    private static class Entry {
+
+        private final String scope;
+
+        private final String prompt;
+
+        /**
+         * 相似度向量，未开启近似匹配时为 null
+         */
+        private final float[] vector;
+
+        private final String output;
+
+        private final long createdAt;
+
+        private Entry(String scope, String prompt, float[] vector, String output, long createdAt) {
+            this.scope = scope;
+            this.prompt = prompt;
+            this.vector = vector;
+            this.output = output;
+            this.createdAt = createdAt;
+        }
+    }
+}
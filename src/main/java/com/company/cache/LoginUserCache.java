@@ -0,0 +1,144 @@
+package com.company.cache;
+
+import cn.hutool.core.bean.BeanUtil;
+import com.company.config.LoginProperties;
+import com.company.model.entity.User;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 登录用户缓存
+ * 按用户 id 缓存数据库中的用户，避免每个请求都查询 user 表；有效期较短，过期后重新查询，
+ * 同时受条目数限制，超出时按 LRU 淘汰。用户被修改、删除时失效，返回的是副本，调用方修改不影响缓存。
+ * 每累计一定次数未命中输出一次命中情况，便于确认有效期设置是否合适
+ */
+@Slf4j
+public class LoginUserCache {
+
+    /**
+     * 默认最大条目数
+     */
+    private static final int DEFAULT_MAX_ENTRIES = 10_000;
+
+    /**
+     * 每多少次未命中输出一次命中情况
+     */
+    private static final long STATS_LOG_INTERVAL = 1_000;
+
+    private final int maxEntries;
+
+    private final long ttlMillis;
+
+    /**
+     * 访问顺序的 LinkedHashMap 实现 LRU，所有访问在 this 上同步
+     */
+    private final LinkedHashMap<Long, Entry> entries;
+
+    /**
+     * 每次失效递增，查询期间发生过失效的用户不再放入缓存，避免放入旧数据
+     */
+    private final AtomicLong epoch = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * 未命中都要查询数据库，计数的开销可以忽略，用 AtomicLong 保证每个间隔只输出一次
+     */
+    private final AtomicLong misses = new AtomicLong();
+
+    public LoginUserCache(LoginProperties properties) {
+        this(DEFAULT_MAX_ENTRIES, properties.getUserCacheTtlMillis());
+    }
+
+    public LoginUserCache(int maxEntries, long ttlMillis) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > LoginUserCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * 获取用户，未命中或已过期时查询
+     *
+     * @param id     用户 id
+     * @param loader 未命中时查询用户，不存在返回 null
+     * @return 用户副本，不存在返回 null
+     */
+    public User get(Long id, Function<Long, User> loader) {
+        if (ttlMillis <= 0) {
+            recordMiss();
+            return loader.apply(id);
+        }
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            Entry entry = entries.get(id);
+            if (entry != null) {
+                if (now < entry.expireAt) {
+                    hits.increment();
+                    return copy(entry.user);
+                }
+                entries.remove(id);
+            }
+        }
+        recordMiss();
+        long startEpoch = epoch.get();
+        User user = loader.apply(id);
+        if (user == null) {
+            // 不存在的用户不缓存，由调用方按未登录处理
+            return null;
+        }
+        synchronized (this) {
+            if (epoch.get() == startEpoch) {
+                entries.put(id, new Entry(copy(user), now + ttlMillis));
+            }
+        }
+        return user;
+    }
+
+    /**
+     * 失效某个用户
+     *
+     * @param id 用户 id
+     */
+    public synchronized void invalidate(Long id) {
+        epoch.incrementAndGet();
+        entries.remove(id);
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void recordMiss() {
+        long missCount = misses.incrementAndGet();
+        if (missCount % STATS_LOG_INTERVAL == 0) {
+            long hitCount = hits.sum();
+            log.info("登录用户缓存命中 {} 次，未命中 {} 次，命中率 {}%，当前条目 {}", hitCount, missCount,
+                    hitCount * 100 / (hitCount + missCount), size());
+        }
+    }
+
+    private static User copy(User user) {
+        return BeanUtil.copyProperties(user, User.class);
+    }
+
+    private record Entry(User user, long expireAt) {
+    }
+}
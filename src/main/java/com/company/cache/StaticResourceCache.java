@@ -0,0 +1,249 @@
+package com.company.cache;
+
+import cn.hutool.crypto.digest.DigestUtil;
+import com.company.core.storage.StoredFile;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 静态资源热点文件缓存
+ * 按 deployKey + 路径缓存文件内容，同时受条目数和总字节数限制，超出时按 LRU 淘汰；
+ * 过大的文件只缓存元数据；不存在的文件也会短时间记录下来，避免反复访问磁盘（如探测 .gz 副本），
+ * 这类记录单独存放、单独限制条目数，大量 404 探测不会挤掉缓存的文件；
+ * 这里的 deployKey 是预览路径中的目录名（{生成类型}_{应用ID}），应用重新生成时按它失效；
+ * 部署目录由 Web 服务器直接读取，不经过该缓存
+ */
+@Slf4j
+@Component
+public class StaticResourceCache {
+
+    /**
+     * 默认最大条目数
+     */
+    private static final int DEFAULT_MAX_ENTRIES = 4096;
+
+    /**
+     * 默认最大总字节数（64MB）
+     */
+    private static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    /**
+     * 默认单个文件最大字节数（1MB），更大的文件不缓存
+     */
+    private static final long DEFAULT_MAX_ENTRY_BYTES = 1024L * 1024;
+
+    /**
+     * 不存在文件的最大记录数
+     */
+    private static final int MAX_MISSING_ENTRIES = 1024;
+
+    /**
+     * 不存在文件的记录有效期（毫秒），过期后重新检查存储
+     */
+    private static final long MISSING_TTL_MILLIS = 5_000;
+
+    private final int maxEntries;
+
+    private final long maxBytes;
+
+    @Getter
+    private final long maxEntryBytes;
+
+    /**
+     * 访问顺序的 LinkedHashMap 实现 LRU，所有访问在 this 上同步
+     */
+    private final LinkedHashMap<String, CachedFile> entries = new LinkedHashMap<>(256, 0.75f, true);
+
+    /**
+     * 不存在的文件 -> 记录过期时间，同样按 LRU 淘汰
+     */
+    private final LinkedHashMap<String, Long> missing = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            return size() > MAX_MISSING_ENTRIES;
+        }
+    };
+
+    private long totalBytes;
+
+    /**
+     * 每次失效递增，加载期间发生过失效的内容不再放入缓存，避免放入旧版本
+     */
+    private final AtomicLong epoch = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    public StaticResourceCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_BYTES, DEFAULT_MAX_ENTRY_BYTES);
+    }
+
+    public StaticResourceCache(int maxEntries, long maxBytes, long maxEntryBytes) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = maxEntryBytes;
+    }
+
+    /**
+     * 获取缓存的文件，未命中时从磁盘加载
+     *
+     * @param deployKey   部署标识
+     * @param path        资源路径
+     * @param contentType 内容类型
+     * @param loader      未命中时读取存储中的文件，不存在返回 null
+     * @return 缓存的文件（过大的文件不含内容），文件不存在或读取失败返回 null
+     */
+    public CachedFile get(String deployKey, String path, String contentType, Supplier<StoredFile> loader) {
+        String key = deployKey + path;
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            CachedFile cached = entries.get(key);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+            Long missingUntil = missing.get(key);
+            if (missingUntil != null) {
+                if (now < missingUntil) {
+                    hits.increment();
+                    return null;
+                }
+                missing.remove(key);
+            }
+        }
+        misses.increment();
+        long startEpoch = epoch.get();
+        StoredFile file = loader.get();
+        if (file == null) {
+            synchronized (this) {
+                if (epoch.get() == startEpoch) {
+                    missing.put(key, now + MISSING_TTL_MILLIS);
+                }
+            }
+            return null;
+        }
+        CachedFile loaded = load(file, contentType);
+        if (loaded == null) {
+            return null;
+        }
+        synchronized (this) {
+            if (epoch.get() == startEpoch) {
+                put(key, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * 失效某个 deployKey 下的所有文件
+     *
+     * @param deployKey 部署标识
+     */
+    public synchronized void invalidate(String deployKey) {
+        epoch.incrementAndGet();
+        String prefix = deployKey + "/";
+        Iterator<Map.Entry<String, CachedFile>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, CachedFile> entry = iterator.next();
+            if (entry.getKey().startsWith(prefix)) {
+                totalBytes -= entry.getValue().weight();
+                iterator.remove();
+            }
+        }
+        missing.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    private void put(String key, CachedFile file) {
+        CachedFile previous = entries.put(key, file);
+        if (previous != null) {
+            totalBytes -= previous.weight();
+        }
+        totalBytes += file.weight();
+        Iterator<CachedFile> iterator = entries.values().iterator();
+        while ((entries.size() > maxEntries || totalBytes > maxBytes) && iterator.hasNext()) {
+            totalBytes -= iterator.next().weight();
+            iterator.remove();
+        }
+    }
+
+    private CachedFile load(StoredFile file, String contentType) {
+        long length = file.length();
+        long lastModified = file.lastModified();
+        if (length > maxEntryBytes) {
+            // 只记录元数据，内容每次从存储读取
+            String etag = "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+            return new CachedFile(null, file, length, etag, lastModified, contentType);
+        }
+        try {
+            byte[] bytes = file.readAllBytes();
+            String etag = "\"" + DigestUtil.sha256Hex(bytes).substring(0, 32) + "\"";
+            return new CachedFile(bytes, file, bytes.length, etag, lastModified, contentType);
+        } catch (IOException e) {
+            log.warn("读取静态资源失败：{}", file, e);
+            return null;
+        }
+    }
+
+    /**
+     * 缓存的文件
+     */
+    @Getter
+    public static class CachedFile {
+
+        /**
+         * 文件内容，过大的文件为 null
+         */
+        private final byte[] bytes;
+
+        private final StoredFile file;
+
+        private final long length;
+
+        /**
+         * 基于内容的强 ETag
+         */
+        private final String etag;
+
+        private final long lastModified;
+
+        private final String contentType;
+
+        public CachedFile(byte[] bytes, StoredFile file, long length, String etag, long lastModified, String contentType) {
+            this.bytes = bytes;
+            this.file = file;
+            this.length = length;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.contentType = contentType;
+        }
+
+        /**
+         * 内容是否在内存中
+         */
+        public boolean isInMemory() {
+            return bytes != null;
+        }
+
+        private long weight() {
+            return bytes == null ? 0 : bytes.length;
+        }
+    }
+}
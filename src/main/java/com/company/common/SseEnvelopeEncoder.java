@@ -0,0 +1,125 @@
+package com.company.common;
+
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * SSE 内容事件的 JSON 编码：{"d":"内容"}
+ * 直接按 JSON 规则转义写入复用的字符缓冲区，每次编码只分配结果字符串；
+ * 缓冲区放在有界的共享池中（不用 ThreadLocal，虚拟线程下同样能复用）
+ */
+public class SseEnvelopeEncoder {
+
+    private static final char[] PREFIX = "{\"d\":\"".toCharArray();
+
+    private static final char[] SUFFIX = "\"}".toCharArray();
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * JSON 中合法但部分 JavaScript 解析器视为换行的字符，统一转义
+     */
+    private static final char LINE_SEPARATOR = 0x2028;
+
+    private static final char PARAGRAPH_SEPARATOR = 0x2029;
+
+    /**
+     * 缓冲区初始大小，能容纳一次合并推送（2048 字符）加转义
+     */
+    private static final int INITIAL_BUFFER_CHARS = 4096;
+
+    /**
+     * 超过该大小的缓冲区用完后不放回池中，避免长期占用内存
+     */
+    private static final int MAX_POOLED_BUFFER_CHARS = 64 * 1024;
+
+    private static final ArrayBlockingQueue<char[]> BUFFER_POOL = new ArrayBlockingQueue<>(64);
+
+    /**
+     * 编码一段内容
+     *
+     * @param content 内容
+     * @return JSON 字符串
+     */
+    public static String encode(String content) {
+        int length = content.length();
+        // 最坏情况下每个字符转义为 6 个字符
+        int maxChars = PREFIX.length + length * 6 + SUFFIX.length;
+        char[] buffer = borrowBuffer(Math.min(maxChars, PREFIX.length + length + (length >> 2) + 16 + SUFFIX.length));
+        try {
+            System.arraycopy(PREFIX, 0, buffer, 0, PREFIX.length);
+            int position = PREFIX.length;
+            int start = 0;
+            for (int i = 0; i < length; i++) {
+                char c = content.charAt(i);
+                if (c >= 0x20 && c != '"' && c != '\\' && c != LINE_SEPARATOR && c != PARAGRAPH_SEPARATOR) {
+                    continue;
+                }
+                // 先批量复制前面不需要转义的部分
+                int plainLength = i - start;
+                if (buffer.length < position + plainLength + 6 + SUFFIX.length) {
+                    buffer = grow(buffer, position, position + (length - start) * 6 + SUFFIX.length);
+                }
+                content.getChars(start, i, buffer, position);
+                position += plainLength;
+                position = writeEscaped(buffer, position, c);
+                start = i + 1;
+            }
+            int plainLength = length - start;
+            if (buffer.length < position + plainLength + SUFFIX.length) {
+                buffer = grow(buffer, position, position + plainLength + SUFFIX.length);
+            }
+            content.getChars(start, length, buffer, position);
+            position += plainLength;
+            System.arraycopy(SUFFIX, 0, buffer, position, SUFFIX.length);
+            position += SUFFIX.length;
+            return new String(buffer, 0, position);
+        } finally {
+            returnBuffer(buffer);
+        }
+    }
+
+    private static int writeEscaped(char[] buffer, int position, char c) {
+        char simple = switch (c) {
+            case '"' -> '"';
+            case '\\' -> '\\';
+            case '\n' -> 'n';
+            case '\r' -> 'r';
+            case '\t' -> 't';
+            case '\b' -> 'b';
+            case '\f' -> 'f';
+            default -> 0;
+        };
+        buffer[position++] = '\\';
+        if (simple != 0) {
+            buffer[position++] = simple;
+            return position;
+        }
+        buffer[position++] = 'u';
+        buffer[position++] = HEX[c >> 12 & 0xF];
+        buffer[position++] = HEX[c >> 8 & 0xF];
+        buffer[position++] = HEX[c >> 4 & 0xF];
+        buffer[position++] = HEX[c & 0xF];
+        return position;
+    }
+
+    private static char[] borrowBuffer(int minChars) {
+        char[] buffer = BUFFER_POOL.poll();
+        if (buffer == null || buffer.length < minChars) {
+            // 太小的缓冲区直接丢弃，换成足够大的
+            return new char[Math.max(minChars, INITIAL_BUFFER_CHARS)];
+        }
+        return buffer;
+    }
+
+    private static char[] grow(char[] buffer, int used, int minChars) {
+        char[] larger = new char[Math.max(minChars, buffer.length * 2)];
+        System.arraycopy(buffer, 0, larger, 0, used);
+        return larger;
+    }
+
+    private static void returnBuffer(char[] buffer) {
+        if (buffer.length <= MAX_POOLED_BUFFER_CHARS) {
+            BUFFER_POOL.offer(buffer);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.company.config;
+
+import com.company.core.storage.CodeStorage;
+import com.company.core.storage.CodeStorageFactory;
+import com.company.model.enums.CodeStorageTypeEnum;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 代码存储配置
+ * 按 code.storage 配置存储工厂，与保存模板使用同一个存储实例
+ */
+@Configuration
+public class CodeStorageConfig {
+
+    @Bean
+    public CodeStorage codeStorage(CodeStorageProperties codeStorageProperties) {
+        return CodeStorageFactory.configure(CodeStorageTypeEnum.getEnumByValue(codeStorageProperties.getType()),
+                codeStorageProperties.isFsync());
+    }
+}
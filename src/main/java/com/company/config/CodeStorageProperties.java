@@ -0,0 +1,24 @@
+package com.company.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 生成代码存储配置（code.storage）
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "code.storage")
+public class CodeStorageProperties {
+
+    /**
+     * 存储方式：directory（目录，默认）或 segment（每个版本打包为一个分段文件）
+     */
+    private String type = "directory";
+
+    /**
+     * 保存时是否 fsync（每个版本只同步一次）；只用于预览、可以接受宕机丢失最近版本时可关闭
+     */
+    private boolean fsync = true;
+}
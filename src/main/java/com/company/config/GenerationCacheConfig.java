@@ -0,0 +1,17 @@
+package com.company.config;
+
+import com.company.cache.GenerationResultCache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 生成结果缓存配置
+ */
+@Configuration
+public class GenerationCacheConfig {
+
+    @Bean
+    public GenerationResultCache generationResultCache(GenerationCacheProperties generationCacheProperties) {
+        return new GenerationResultCache(generationCacheProperties);
+    }
+}
@@ -0,0 +1,24 @@
+package com.company.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 生成结果缓存配置（generation.cache）
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "generation.cache")
+public class GenerationCacheProperties {
+
+    /**
+     * 是否缓存生成结果，相同提示词直接返回缓存的输出
+     */
+    private boolean enabled = true;
+
+    /**
+     * 近似匹配的相似度阈值（0~1），为 0 时只精确匹配
+     */
+    private double similarity = 0;
+}
@@ -0,0 +1,69 @@
+package com.company.config;
+
+import lombok.Data;
+import lombok.ToString;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 登录配置（login）
+ * 登录态保存方式、签名令牌、堆外会话存储和登录用户缓存
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "login")
+public class LoginProperties {
+
+    /**
+     * 登录态保存方式：session（HttpSession，默认）、token（无状态签名令牌）或 store（堆外会话存储），未知的值按 session 处理
+     */
+    private String mode = "session";
+
+    /**
+     * 登录用户缓存有效期（毫秒），为 0 时每次都查询数据库；其他实例修改用户后最多延迟这么久生效
+     */
+    private long userCacheTtlMillis = 30_000;
+
+    private Token token = new Token();
+
+    private Session session = new Session();
+
+    @Data
+    public static class Token {
+
+        /**
+         * 签名密钥，多节点部署时必须一致；未配置时启动时随机生成，重启后已签发的令牌失效
+         */
+        @ToString.Exclude
+        private String secret;
+
+        /**
+         * 密钥版本（1~255），更换密钥时递增，旧令牌全部失效
+         */
+        private int keyVersion = 1;
+
+        /**
+         * 有效期（秒）
+         */
+        private long ttlSeconds = 24 * 60 * 60;
+    }
+
+    @Data
+    public static class Session {
+
+        /**
+         * 最大会话数，内存按该值一次性分配（每个会话 32 字节）
+         */
+        private int capacity = 500_000;
+
+        /**
+         * 空闲过期时间（秒）
+         */
+        private long idleSeconds = 30 * 60;
+
+        /**
+         * 持久化文件，配置后会话映射到该文件，重启后仍然有效；为空时只保存在堆外内存中
+         */
+        private String file;
+    }
+}
@@ -0,0 +1,54 @@
+package com.company.config;
+
+import cn.hutool.core.util.StrUtil;
+import com.company.auth.HttpSessionLoginRepository;
+import com.company.auth.LoginSessionRepository;
+import com.company.auth.LoginTokenService;
+import com.company.auth.OffHeapLoginRepository;
+import com.company.auth.PasswordService;
+import com.company.auth.TokenLoginRepository;
+import com.company.cache.LoginUserCache;
+import com.company.model.enums.LoginModeEnum;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Paths;
+
+/**
+ * 登录配置
+ * 按 login、password.hash 配置创建登录态存储、令牌、登录用户缓存和密码校验；
+ * 登录态存储根据 login.mode 选择实现，未知的值按 session 处理
+ */
+@Configuration
+public class LoginSessionConfig {
+
+    @Bean
+    public LoginTokenService loginTokenService(LoginProperties loginProperties) {
+        return new LoginTokenService(loginProperties);
+    }
+
+    @Bean
+    public LoginSessionRepository loginSessionRepository(LoginTokenService loginTokenService, LoginProperties loginProperties) {
+        LoginModeEnum loginMode = LoginModeEnum.getEnumByValue(loginProperties.getMode());
+        if (loginMode == LoginModeEnum.TOKEN) {
+            return new TokenLoginRepository(loginTokenService);
+        }
+        if (loginMode == LoginModeEnum.STORE) {
+            LoginProperties.Session session = loginProperties.getSession();
+            String file = session.getFile();
+            return new OffHeapLoginRepository(session.getCapacity(), session.getIdleSeconds(),
+                    StrUtil.isBlank(file) ? null : Paths.get(file));
+        }
+        return new HttpSessionLoginRepository();
+    }
+
+    @Bean
+    public LoginUserCache loginUserCache(LoginProperties loginProperties) {
+        return new LoginUserCache(loginProperties);
+    }
+
+    @Bean
+    public PasswordService passwordService(PasswordHashProperties passwordHashProperties) {
+        return new PasswordService(passwordHashProperties);
+    }
+}
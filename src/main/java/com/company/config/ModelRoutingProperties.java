@@ -0,0 +1,50 @@
+package com.company.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 模型路由配置（ai.routing）
+ * 配置了额外端点时，流式生成在默认模型和这些端点之间路由；未配置时只使用默认模型
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "ai.routing")
+public class ModelRoutingProperties {
+
+    /**
+     * 额外的 OpenAI 兼容端点
+     */
+    private List<Endpoint> endpoints = new ArrayList<>();
+
+    /**
+     * 首 token 超时时是否向下一个端点发送对冲请求
+     */
+    private boolean hedgeEnabled = false;
+
+    /**
+     * 对冲截止时间下限（毫秒）
+     */
+    private long hedgeMinDelayMillis = 1500;
+
+    /**
+     * 对冲截止时间上限（毫秒）
+     */
+    private long hedgeMaxDelayMillis = 8000;
+
+    @Data
+    public static class Endpoint {
+
+        private String name;
+
+        private String baseUrl;
+
+        private String apiKey;
+
+        private String modelName;
+    }
+}
@@ -0,0 +1,29 @@
+package com.company.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 密码哈希配置（password.hash）
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "password.hash")
+public class PasswordHashProperties {
+
+    /**
+     * PBKDF2-HMAC-SHA256 迭代次数，调大后旧密码在下次登录时重新计算；取值参考 PasswordHasherBenchmark
+     */
+    private int iterations = 210_000;
+
+    /**
+     * 哈希线程数，默认为 CPU 核心数的一半
+     */
+    private int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    /**
+     * 排队上限，超出时登录直接返回请求过于频繁
+     */
+    private int queue = 256;
+}
@@ -20,6 +20,86 @@ public interface AppConstant {
      */
     String CODE_OUTPUT_ROOT_DIR = System.getProperty("user.dir") + "/tmp/code_output";
 
+    /**
+     * 每个应用保留的生成版本数（用于回滚）
+     */
+    Integer CODE_VERSION_KEEP_COUNT = 5;
+
+    /**
+     * 保存生成代码时同时写文件的线程数
+     */
+    Integer CODE_SAVE_IO_THREADS = 8;
+
+    /**
+     * 项目模式一次生成的文件数上限，超出的代码块不保存
+     */
+    Integer PROJECT_MAX_FILES = 500;
+
+    /**
+     * 流式生成缓冲的最近内容段数（用于断线重连补齐）
+     */
+    Integer GENERATION_REPLAY_BUFFER_SIZE = 4096;
+
+    /**
+     * 生成结束后会话保留时间（毫秒），期间可以重连补齐
+     */
+    Long GENERATION_SESSION_RETAIN_MILLIS = 5 * 60 * 1000L;
+
+    /**
+     * 同时进行的生成任务数上限，超出的排队
+     */
+    Integer GENERATION_MAX_CONCURRENT = 16;
+
+    /**
+     * 排队的生成任务数上限
+     */
+    Integer GENERATION_MAX_QUEUE_SIZE = 256;
+
+    /**
+     * 排队预计等待时间上限（毫秒），超过时直接拒绝
+     */
+    Long GENERATION_QUEUE_SLO_MILLIS = 3 * 60 * 1000L;
+
+    /**
+     * 每个用户可以连续发起的生成次数（令牌桶容量）
+     */
+    Integer GENERATION_USER_BURST = 3;
+
+    /**
+     * 每个用户恢复一次生成机会的时间（毫秒）
+     */
+    Long GENERATION_USER_REFILL_MILLIS = 20 * 1000L;
+
+    /**
+     * 管理员的排队权重（普通用户为 1）
+     */
+    Integer GENERATION_ADMIN_WEIGHT = 2;
+
+    /**
+     * 生成结果缓存有效期（毫秒）
+     */
+    Long GENERATION_CACHE_TTL_MILLIS = 24 * 60 * 60 * 1000L;
+
+    /**
+     * SSE 推送默认合并字符数，累计达到后立即推送
+     */
+    Integer SSE_FLUSH_CHARS = 2048;
+
+    /**
+     * SSE 推送默认合并时间窗口（毫秒），为 0 时逐段推送
+     */
+    Integer SSE_FLUSH_MILLIS = 30;
+
+    /**
+     * 客户端可设置的最大合并字符数
+     */
+    Integer SSE_MAX_FLUSH_CHARS = 16 * 1024;
+
+    /**
+     * 客户端可设置的最大合并时间窗口（毫秒）
+     */
+    Integer SSE_MAX_FLUSH_MILLIS = 500;
+
     /**
      * 应用部署目录
      */
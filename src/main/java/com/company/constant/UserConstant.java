@@ -7,6 +7,21 @@ public interface UserConstant {
      */
     String USER_LOGIN_STATE = "user_login";
 
+    /**
+     * 当前请求中已解析的登录用户（请求属性键），同一请求内多次获取登录用户只查询一次
+     */
+    String LOGIN_USER_ATTRIBUTE = "login_user";
+
+    /**
+     * 无状态登录令牌的 Cookie 名
+     */
+    String LOGIN_TOKEN_COOKIE = "login_token";
+
+    /**
+     * 会话存储的会话 id Cookie 名
+     */
+    String LOGIN_SESSION_COOKIE = "login_session";
+
     //  region 权限
 
     /**
@@ -2,14 +2,16 @@ package com.company.controller;
 
 import cn.hutool.core.bean.BeanUtil;
 import cn.hutool.core.util.StrUtil;
-import cn.hutool.json.JSONUtil;
 import com.company.ai.model.enums.CodeGenTypeEnum;
 import com.company.annotation.AuthCheck;
 import com.company.common.BaseResponse;
 import com.company.common.DeleteRequest;
 import com.company.common.ResultUtils;
+import com.company.common.SseEnvelopeEncoder;
 import com.company.constant.AppConstant;
 import com.company.constant.UserConstant;
+import com.company.core.GenerationChunk;
+import com.company.core.GenerationChunkCoalescer;
 import com.company.exception.BusinessException;
 import com.company.exception.ErrorCode;
 import com.company.exception.ThrowUtils;
@@ -29,9 +31,9 @@ import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Map;
 
 /**
  * 应用 控制层。
@@ -42,6 +44,9 @@ import java.util.Map;
 @RequestMapping("/app")
 public class AppController {
 
+    // 浏览器 EventSource 断线重连时携带的最后事件 id
+    private static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+
     @Resource
     private AppService appService;
 
@@ -53,27 +58,78 @@ public class AppController {
      *
      * @param appId   应用 ID
      * @param message 用户消息
+     * @param flushChars 合并推送的字符数（可选）
+     * @param flushMs 合并推送的时间窗口，毫秒，0 表示逐段推送（可选）
+     * @param lastEventId 断线重连时最后收到的事件 id
      * @param request 请求对象
      * @return 生成结果流
      */
     @GetMapping(value = "/chat/gen/code", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
     public Flux<ServerSentEvent<String>> chatToGenCode(@RequestParam Long appId,
                                                        @RequestParam String message,
+                                                       @RequestParam(required = false) Integer flushChars,
+                                                       @RequestParam(required = false) Integer flushMs,
+                                                       @RequestHeader(value = LAST_EVENT_ID_HEADER, required = false) String lastEventId,
                                                        HttpServletRequest request) {
         // 参数校验
         ThrowUtils.throwIf(appId == null || appId <= 0, ErrorCode.PARAMS_ERROR, "应用ID无效");
         ThrowUtils.throwIf(StrUtil.isBlank(message), ErrorCode.PARAMS_ERROR, "用户消息不能为空");
         // 获取当前登录用户
         User loginUser = userService.getLoginUser(request);
-        // 调用服务生成代码（流式）
-        Flux<String> contentFlux = appService.chatToGenCode(message, appId, loginUser);
-        //转换成ServerSentEvent格式
-        return contentFlux
+        // 调用服务生成代码（流式），浏览器断线自动重连时会带上 Last-Event-ID，只补发缺少的部分
+        Flux<GenerationChunk> chunkFlux = appService.chatToGenCode(message, appId, loginUser, parseLastEventId(lastEventId));
+        return toServerSentEvents(chunkFlux, flushChars, flushMs);
+    }
+
+    /**
+     * 断线重连：继续接收应用当前生成中缺少的内容（不需要重新提交消息）
+     *
+     * @param appId       应用 ID
+     * @param lastEventId 最后收到的事件 id，优先使用 Last-Event-ID 请求头
+     * @param flushChars  合并推送的字符数（可选）
+     * @param flushMs     合并推送的时间窗口，毫秒（可选）
+     * @param request     请求对象
+     * @return 生成结果流
+     */
+    @GetMapping(value = "/chat/gen/code/resume", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> resumeGenCode(@RequestParam Long appId,
+                                                       @RequestParam(required = false) String lastEventId,
+                                                       @RequestParam(required = false) Integer flushChars,
+                                                       @RequestParam(required = false) Integer flushMs,
+                                                       @RequestHeader(value = LAST_EVENT_ID_HEADER, required = false) String lastEventIdHeader,
+                                                       HttpServletRequest request) {
+        ThrowUtils.throwIf(appId == null || appId <= 0, ErrorCode.PARAMS_ERROR, "应用ID无效");
+        User loginUser = userService.getLoginUser(request);
+        long resumeFrom = parseLastEventId(StrUtil.isNotBlank(lastEventIdHeader) ? lastEventIdHeader : lastEventId);
+        return toServerSentEvents(appService.resumeGenCode(appId, loginUser, resumeFrom), flushChars, flushMs);
+    }
+
+    /**
+     * 转换成ServerSentEvent格式：先按字符数和时间窗口合并，内容事件以序号作为 id，
+     * 内容丢失时发送 resync 事件，最后发送结束事件
+     */
+    private Flux<ServerSentEvent<String>> toServerSentEvents(Flux<GenerationChunk> chunkFlux, Integer flushChars, Integer flushMs) {
+        int maxChars = clamp(flushChars, AppConstant.SSE_FLUSH_CHARS, AppConstant.SSE_MAX_FLUSH_CHARS);
+        int windowMillis = clamp(flushMs, AppConstant.SSE_FLUSH_MILLIS, AppConstant.SSE_MAX_FLUSH_MILLIS);
+        return GenerationChunkCoalescer.coalesce(chunkFlux, maxChars, Duration.ofMillis(windowMillis))
                 .map(chunk -> {
-                    //将内容转换成json
-                    Map<String, String> wrapper = Map.of("d", chunk);
-                    String jsonStr = JSONUtil.toJsonStr(wrapper);
+                    if (chunk.isResync()) {
+                        return ServerSentEvent.<String>builder()
+                                .event("resync")
+                                .data("")
+                                .build();
+                    }
+                    if (chunk.isQueued()) {
+                        //排队位置：{"position":N}
+                        return ServerSentEvent.<String>builder()
+                                .event("queue")
+                                .data("{\"position\":" + chunk.getQueuePosition() + "}")
+                                .build();
+                    }
+                    //将内容编码成json：{"d":"..."}
+                    String jsonStr = SseEnvelopeEncoder.encode(chunk.getContent());
                     return ServerSentEvent.<String>builder()
+                            .id(String.valueOf(chunk.getSeq()))
                             .data(jsonStr)
                             .build();
                 })
@@ -86,6 +142,24 @@ public class AppController {
                 ));
     }
 
+    private int clamp(Integer value, int defaultValue, int maxValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        return Math.max(0, Math.min(value, maxValue));
+    }
+
+    private long parseLastEventId(String lastEventId) {
+        if (StrUtil.isBlank(lastEventId)) {
+            return 0;
+        }
+        try {
+            return Math.max(0, Long.parseLong(lastEventId.trim()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
     /**
      * 应用部署
      *
@@ -1,11 +1,19 @@
 package com.company.controller;
 
-import com.company.constant.AppConstant;
+import com.company.cache.StaticResourceCache;
+import com.company.cache.StaticResourceCache.CachedFile;
+import com.company.core.saver.CodePrecompressor;
+import com.company.core.storage.CodeStorage;
+import com.company.core.storage.PreviewDrafts;
+import com.company.core.storage.StoredFile;
 import jakarta.servlet.http.HttpServletRequest;
-import org.springframework.core.io.FileSystemResource;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -13,14 +21,47 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.HandlerMapping;
 
-import java.io.File;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/static")
 public class StaticResourceController {
 
-    // 应用生成根目录（用于浏览）
-    private static final String PREVIEW_ROOT_DIR = AppConstant.CODE_OUTPUT_ROOT_DIR;
+    // HTML 每次都需要协商（文件名固定，重新生成后必须立即可见）
+    private static final String HTML_CACHE_CONTROL = "no-cache";
+
+    // 其他资源允许短时间直接使用本地缓存
+    private static final String ASSET_CACHE_CONTROL = "public, max-age=60";
+
+    // 未知扩展名的类型
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+
+    // 扩展名到 Content-Type 的映射
+    private static final Map<String, String> CONTENT_TYPES = loadContentTypes();
+
+    // Tomcat sendfile 相关的请求属性
+    private static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
+    @jakarta.annotation.Resource
+    private StaticResourceCache staticResourceCache;
+
+    @jakarta.annotation.Resource
+    private CodeStorage codeStorage;
 
     /**
      * 提供静态资源访问，支持目录重定向
@@ -29,7 +70,8 @@ public class StaticResourceController {
     @GetMapping("/{deployKey}/**")
     public ResponseEntity<Resource> serveStaticResource(
             @PathVariable String deployKey,
-            HttpServletRequest request) {
+            HttpServletRequest request,
+            HttpServletResponse response) {
         try {
             // 获取资源路径
             String resourcePath = (String) request.getAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE);
@@ -44,32 +86,252 @@ public class StaticResourceController {
             if (resourcePath.equals("/")) {
                 resourcePath = "/index.html";
             }
-            // 构建文件路径
-            String filePath = PREVIEW_ROOT_DIR + "/" + deployKey + resourcePath;
-            File file = new File(filePath);
+            // 从代码存储读取当前版本的文件，生成中已经写完的文件读取草稿
+            String contentType = getContentTypeWithCharset(resourcePath);
+            boolean compressible = CodePrecompressor.isCompressible(resourcePath);
+            // 客户端支持 gzip 时优先返回生成时预压缩的副本
+            CachedFile cachedFile = null;
+            boolean gzip = false;
+            if (compressible && acceptsGzip(request)) {
+                String gzipPath = resourcePath + CodePrecompressor.GZIP_SUFFIX;
+                cachedFile = staticResourceCache.get(deployKey, gzipPath, contentType,
+                        () -> getPreviewFile(deployKey, gzipPath));
+                gzip = cachedFile != null;
+            }
+            if (cachedFile == null) {
+                String path = resourcePath;
+                cachedFile = staticResourceCache.get(deployKey, path, contentType, () -> getPreviewFile(deployKey, path));
+            }
             // 检查文件是否存在
-            if (!file.exists()) {
+            if (cachedFile == null) {
                 return ResponseEntity.notFound().build();
             }
-            // 返回文件资源
-            Resource resource = new FileSystemResource(file);
-            return ResponseEntity.ok()
-                    .header("Content-Type", getContentTypeWithCharset(filePath))
-                    .body(resource);
+            return serveCachedFile(cachedFile, resourcePath, compressible, gzip, request, response);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    /**
+     * 读取预览文件：生成中已经写完的文件从草稿读取，其余来自当前版本
+     */
+    private StoredFile getPreviewFile(String dirName, String path) {
+        if (PreviewDrafts.covers(dirName, path)) {
+            return PreviewDrafts.getFile(dirName, path);
+        }
+        return codeStorage.getFile(dirName, path);
+    }
+
+    /**
+     * 返回缓存的文件，支持 If-None-Match / If-Modified-Since 协商缓存
+     * 压缩副本与原文件内容不同，ETag 也不同
+     */
+    private ResponseEntity<Resource> serveCachedFile(CachedFile cachedFile, String filePath, boolean compressible,
+                                                     boolean gzip, HttpServletRequest request,
+                                                     HttpServletResponse response) throws IOException {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CACHE_CONTROL, getCacheControl(filePath));
+        headers.setETag(cachedFile.getEtag());
+        headers.setLastModified(cachedFile.getLastModified());
+        if (compressible) {
+            headers.set(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        if (isNotModified(request, cachedFile.getEtag(), cachedFile.getLastModified())) {
+            return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+        }
+        headers.set("Content-Type", cachedFile.getContentType());
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        // 过大的文件不在内存中，直接从文件传输
+        if (!cachedFile.isInMemory()) {
+            serveFile(cachedFile, headers, request, response);
+            return null;
+        }
+        // 内存中的内容由 Spring 处理 Range 请求
+        return new ResponseEntity<>(new ByteArrayResource(cachedFile.getBytes()), headers, HttpStatus.OK);
+    }
+
+    /**
+     * 直接把文件写入响应：本地文件且支持 sendfile 时交给 Tomcat 零拷贝发送，否则由存储写入输出通道
+     * 支持单个 Range 的分段请求（206），多段请求返回完整内容
+     */
+    private void serveFile(CachedFile cachedFile, HttpHeaders headers, HttpServletRequest request,
+                           HttpServletResponse response) throws IOException {
+        long length = cachedFile.getLength();
+        long start = 0;
+        long end = length - 1;
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        HttpRange range = getRange(request, cachedFile);
+        if (range != null) {
+            start = range.getRangeStart(length);
+            end = range.getRangeEnd(length);
+            if (start >= length || start > end) {
+                headers.set(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                writeHeaders(response, HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE, headers);
+                response.setContentLength(0);
+                return;
+            }
+            headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+        writeHeaders(response, range != null ? HttpStatus.PARTIAL_CONTENT : HttpStatus.OK, headers);
+        response.setContentLengthLong(end - start + 1);
+        if ("HEAD".equals(request.getMethod()) || length == 0) {
+            return;
+        }
+        StoredFile storedFile = cachedFile.getFile();
+        if (storedFile.getFile() != null && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR))) {
+            // 结束位置不包含
+            request.setAttribute(SENDFILE_FILENAME_ATTR, storedFile.getFile().getAbsolutePath());
+            request.setAttribute(SENDFILE_START_ATTR, start);
+            request.setAttribute(SENDFILE_END_ATTR, end + 1);
+            return;
+        }
+        storedFile.transferTo(start, end - start + 1, Channels.newChannel(response.getOutputStream()));
+    }
+
+    /**
+     * 解析单个 Range；If-Range 与当前 ETag 不一致、格式错误或多段请求时返回 null（返回完整内容）
+     */
+    private HttpRange getRange(HttpServletRequest request, CachedFile cachedFile) {
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader == null) {
+            return null;
+        }
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRange.trim().equals(cachedFile.getEtag())) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private void writeHeaders(HttpServletResponse response, HttpStatus status, HttpHeaders headers) {
+        response.setStatus(status.value());
+        headers.forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+    }
+
+    /**
+     * 客户端是否接受 gzip 编码：明确列出 gzip 时以其 q 值为准，否则看通配符 *（q=0 表示不接受）
+     */
+    private boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Boolean wildcard = null;
+        for (String candidate : acceptEncoding.split(",")) {
+            String[] parts = candidate.trim().split(";");
+            String coding = parts[0].trim();
+            if (coding.equalsIgnoreCase("gzip")) {
+                return isAcceptable(parts);
+            }
+            if (coding.equals("*")) {
+                wildcard = isAcceptable(parts);
+            }
+        }
+        return Boolean.TRUE.equals(wildcard);
+    }
+
+    private boolean isAcceptable(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String param = parts[i].trim();
+            if (param.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(param.substring(2)) > 0;
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 判断客户端缓存是否仍然有效：有 If-None-Match 时只比较 ETag，否则比较修改时间（精确到秒）
+     */
+    private boolean isNotModified(HttpServletRequest request, String etag, long lastModified) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            if (etag == null) {
+                return false;
+            }
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        long ifModifiedSince;
+        try {
+            ifModifiedSince = request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return ifModifiedSince >= 0 && lastModified / 1000 <= ifModifiedSince / 1000;
+    }
+
+    /**
+     * 根据文件类型返回缓存策略
+     */
+    private String getCacheControl(String filePath) {
+        return filePath.endsWith(".html") ? HTML_CACHE_CONTROL : ASSET_CACHE_CONTROL;
+    }
+
     /**
      * 根据文件扩展名返回带字符编码的 Content-Type
      */
-    private String getContentTypeWithCharset(String filePath) {
-        if (filePath.endsWith(".html")) return "text/html; charset=UTF-8";
-        if (filePath.endsWith(".css")) return "text/css; charset=UTF-8";
-        if (filePath.endsWith(".js")) return "application/javascript; charset=UTF-8";
-        if (filePath.endsWith(".png")) return "image/png";
-        if (filePath.endsWith(".jpg")) return "image/jpeg";
-        return "application/octet-stream";
+    public static String getContentTypeWithCharset(String filePath) {
+        String fileName = filePath.substring(filePath.lastIndexOf('/') + 1);
+        int dot = fileName.lastIndexOf('.');
+        if (dot < 0) {
+            return DEFAULT_CONTENT_TYPE;
+        }
+        return CONTENT_TYPES.getOrDefault(fileName.substring(dot + 1).toLowerCase(), DEFAULT_CONTENT_TYPE);
+    }
+
+    /**
+     * 启动时加载扩展名到 Content-Type 的映射（使用 spring-web 自带的 mime.types），文本类型追加 UTF-8 编码
+     */
+    private static Map<String, String> loadContentTypes() {
+        Map<String, String> contentTypes = new HashMap<>();
+        try (InputStream inputStream = MediaTypeFactory.class.getResourceAsStream("mime.types")) {
+            if (inputStream != null) {
+                BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.US_ASCII));
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isEmpty() || line.charAt(0) == '#') {
+                        continue;
+                    }
+                    String[] tokens = line.trim().split("\\s+");
+                    for (int i = 1; i < tokens.length; i++) {
+                        contentTypes.put(tokens[i].toLowerCase(), withCharset(tokens[0]));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("加载 MIME 类型失败", e);
+        }
+        // 与前端约定的类型保持不变
+        contentTypes.put("js", "application/javascript; charset=UTF-8");
+        contentTypes.put("mjs", "application/javascript; charset=UTF-8");
+        contentTypes.putIfAbsent("html", "text/html; charset=UTF-8");
+        contentTypes.putIfAbsent("css", "text/css; charset=UTF-8");
+        contentTypes.putIfAbsent("png", "image/png");
+        contentTypes.putIfAbsent("jpg", "image/jpeg");
+        contentTypes.putIfAbsent("map", "application/json; charset=UTF-8");
+        return Map.copyOf(contentTypes);
+    }
+
+    private static String withCharset(String mimeType) {
+        boolean text = mimeType.startsWith("text/") || mimeType.equals("application/json")
+                || mimeType.equals("application/xml") || mimeType.equals("image/svg+xml");
+        return text ? mimeType + "; charset=UTF-8" : mimeType;
     }
 }
@@ -1,27 +1,59 @@
 package com.company.core;
 
+import cn.hutool.crypto.digest.DigestUtil;
 import com.company.ai.AiCodeGeneratorService;
 import com.company.ai.model.HtmlCodeResult;
 import com.company.ai.model.MultiFileCodeResult;
+import com.company.ai.model.ProjectCodeResult;
 import com.company.ai.model.enums.CodeGenTypeEnum;
+import com.company.cache.GenerationResultCache;
+import com.company.cache.StaticResourceCache;
+import com.company.constant.AppConstant;
 import com.company.core.parser.CodeParserExecutor;
+import com.company.core.parser.StreamingCodeParser;
 import com.company.core.saver.CodeFileSaverExecutor;
+import com.company.core.saver.CodeFileStreamSession;
 import com.company.exception.BusinessException;
 import com.company.exception.ErrorCode;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 import java.io.File;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 @Slf4j
 public class AiCodeGeneratorFacade {
 
+    /**
+     * 解析和写文件的调度器（虚拟线程），不占用模型客户端的回调线程
+     */
+    private static final Scheduler GENERATION_IO_SCHEDULER =
+            Schedulers.fromExecutorService(Executors.newVirtualThreadPerTaskExecutor(), "generation-io");
+
     @Resource
     private AiCodeGeneratorService aiCodeGeneratorService;
 
+    @Resource
+    private StaticResourceCache staticResourceCache;
+
+    @Resource
+    private GenerationScheduler generationScheduler;
+
+    @Resource
+    private GenerationResultCache generationResultCache;
+
+    /**
+     * 流式生成会话，按应用ID索引；同一应用同时只有一个进行中的生成，结束后保留一段时间用于断线补齐
+     */
+    private final ConcurrentHashMap<Long, GenerationSession> generationSessions = new ConcurrentHashMap<>();
+
     /**
      * 统一入口：根据类型生成并保存代码
      *
@@ -33,7 +65,15 @@ public class AiCodeGeneratorFacade {
         if (codeGenTypeEnum == null) {
             throw new BusinessException(ErrorCode.SYSTEM_ERROR, "生成类型为空");
         }
-        return switch (codeGenTypeEnum) {
+        String cachedOutput = generationResultCache.get(userMessage, codeGenTypeEnum);
+        if (cachedOutput != null) {
+            // 命中生成结果缓存，解析缓存的输出后保存
+            Object result = CodeParserExecutor.executeParser(cachedOutput, codeGenTypeEnum);
+            File savedDir = CodeFileSaverExecutor.executeSaver(codeGenTypeEnum, result, appId);
+            staticResourceCache.invalidate(savedDir.getName());
+            return savedDir;
+        }
+        File savedDir = switch (codeGenTypeEnum) {
             case HTML -> {
                 HtmlCodeResult result = aiCodeGeneratorService.generateHtmlCode(userMessage);
                 yield CodeFileSaverExecutor.executeSaver(CodeGenTypeEnum.HTML,result, appId);
@@ -42,11 +82,18 @@ public class AiCodeGeneratorFacade {
                 MultiFileCodeResult result = aiCodeGeneratorService.generateMultiFileCode(userMessage);
                 yield CodeFileSaverExecutor.executeSaver(CodeGenTypeEnum.MULTI_FILE,result, appId);
             }
+            case PROJECT -> {
+                ProjectCodeResult result = aiCodeGeneratorService.generateProjectCode(userMessage);
+                yield CodeFileSaverExecutor.executeSaver(CodeGenTypeEnum.PROJECT, result, appId);
+            }
             default -> {
                 String errorMessage = "不支持的生成类型：" + codeGenTypeEnum.getValue();
                 throw new BusinessException(ErrorCode.SYSTEM_ERROR, errorMessage);
             }
         };
+        // 新版本发布后失效预览缓存
+        staticResourceCache.invalidate(savedDir.getName());
+        return savedDir;
     }
 
     /**
@@ -56,17 +103,121 @@ public class AiCodeGeneratorFacade {
      * @param codeGenTypeEnum 生成类型
      */
     public Flux<String> generateAndSaveCodeStream(String userMessage, CodeGenTypeEnum codeGenTypeEnum,Long appId) {
+        return generateAndSaveCodeStream(userMessage, codeGenTypeEnum, appId, 0L, 1, 0)
+                .filter(chunk -> chunk.getContent() != null)
+                .map(GenerationChunk::getContent);
+    }
+
+    /**
+     * 统一入口：根据类型生成并保存代码（流式，内容带序号）
+     * 同一应用相同的请求（如重复点击、前端重连）共用一次生成，新订阅者会先收到缓冲区中已生成的内容；
+     * 带 lastEventId 的重连只接收缺少的部分，生成刚结束时也可以补齐；应用正在生成时的其他请求直接拒绝。
+     * 新的生成经过调度器排队，排队期间推送排队位置
+     *
+     * @param userMessage     用户提示词
+     * @param codeGenTypeEnum 生成类型
+     * @param appId           应用ID
+     * @param userId          发起生成的用户ID
+     * @param weight          用户的排队权重
+     * @param lastEventId     客户端最后收到的序号，新请求为 0
+     */
+    public Flux<GenerationChunk> generateAndSaveCodeStream(String userMessage, CodeGenTypeEnum codeGenTypeEnum, Long appId,
+                                                           Long userId, int weight, long lastEventId) {
         if (codeGenTypeEnum == null) {
             throw new BusinessException(ErrorCode.SYSTEM_ERROR, "生成类型为空");
         }
+        removeExpiredSessions();
+        String sessionKey = codeGenTypeEnum.getValue() + ":" + DigestUtil.sha256Hex(userMessage);
+        GenerationSession session = generationSessions.compute(appId, (id, existing) -> {
+            if (existing == null) {
+                return new GenerationSession(sessionKey, AppConstant.GENERATION_REPLAY_BUFFER_SIZE);
+            }
+            if (existing.isCompleted()) {
+                // 已结束的生成只用于断线补齐，新的请求重新生成
+                boolean resume = lastEventId > 0 && existing.getKey().equals(sessionKey);
+                return resume ? existing : new GenerationSession(sessionKey, AppConstant.GENERATION_REPLAY_BUFFER_SIZE);
+            }
+            if (!existing.getKey().equals(sessionKey)) {
+                throw new BusinessException(ErrorCode.OPERATION_ERROR, "应用正在生成中，请等待当前生成完成");
+            }
+            return existing;
+        });
+        if (session.markStarted()) {
+            startSession(appId, session, userMessage, codeGenTypeEnum, userId, weight);
+        }
+        return session.stream(lastEventId);
+    }
+
+    /**
+     * 断线重连：继续接收应用当前（或刚结束）的生成中缺少的内容
+     *
+     * @param appId       应用ID
+     * @param lastEventId 客户端最后收到的序号
+     */
+    public Flux<GenerationChunk> resumeCodeStream(Long appId, long lastEventId) {
+        GenerationSession session = generationSessions.get(appId);
+        if (session == null || session.isExpired(AppConstant.GENERATION_SESSION_RETAIN_MILLIS)) {
+            throw new BusinessException(ErrorCode.NOT_FOUND_ERROR, "生成会话不存在或已过期");
+        }
+        return session.stream(lastEventId);
+    }
+
+    /**
+     * 提交给调度器，获得名额后订阅一次上游生成，结果推送给会话的所有订阅者；上游不随订阅者断开而取消，结束时释放名额。
+     * 命中生成结果缓存时直接回放缓存的输出，不占用名额
+     */
+    private void startSession(Long appId, GenerationSession session, String userMessage, CodeGenTypeEnum codeGenTypeEnum,
+                              Long userId, int weight) {
+        try {
+            String cachedOutput = generationResultCache.get(userMessage, codeGenTypeEnum);
+            if (cachedOutput != null) {
+                log.info("命中生成结果缓存，appId：{}", appId);
+                session.dispatched();
+                processCodeStream(GenerationResultCache.replay(cachedOutput), codeGenTypeEnum, appId, null)
+                        .subscribe(session::emit, session::error, session::complete);
+                return;
+            }
+            Flux<String> codeStream = createCodeStream(userMessage, codeGenTypeEnum, appId);
+            generationScheduler.submit(userId, weight, new GenerationScheduler.Task() {
+                @Override
+                public void onQueued(long version, int position) {
+                    session.queued(version, position);
+                }
+
+                @Override
+                public void start(GenerationScheduler.Ticket ticket) {
+                    session.dispatched();
+                    codeStream.doFinally(signal -> ticket.release())
+                            .subscribe(session::emit, session::error, session::complete);
+                }
+            });
+        } catch (RuntimeException e) {
+            generationSessions.remove(appId, session);
+            session.error(e);
+            throw e;
+        }
+    }
+
+    /**
+     * 清理超过保留时间的已结束会话
+     */
+    private void removeExpiredSessions() {
+        generationSessions.values().removeIf(session -> session.isExpired(AppConstant.GENERATION_SESSION_RETAIN_MILLIS));
+    }
+
+    private Flux<String> createCodeStream(String userMessage, CodeGenTypeEnum codeGenTypeEnum, Long appId) {
         return switch (codeGenTypeEnum) {
             case HTML -> {
                 Flux<String> codeStream = aiCodeGeneratorService.generateHtmlCodeStream(userMessage);
-                yield processCodeStream(codeStream, CodeGenTypeEnum.HTML, appId);
+                yield processCodeStream(codeStream, CodeGenTypeEnum.HTML, appId, userMessage);
             }
             case MULTI_FILE -> {
                 Flux<String> codeStream = aiCodeGeneratorService.generateMultiFileCodeStream(userMessage);
-                yield processCodeStream(codeStream, CodeGenTypeEnum.MULTI_FILE, appId);
+                yield processCodeStream(codeStream, CodeGenTypeEnum.MULTI_FILE, appId, userMessage);
+            }
+            case PROJECT -> {
+                Flux<String> codeStream = aiCodeGeneratorService.generateProjectCodeStream(userMessage);
+                yield processCodeStream(codeStream, CodeGenTypeEnum.PROJECT, appId, userMessage);
             }
             default -> {
                 String errorMessage = "不支持的生成类型：" + codeGenTypeEnum.getValue();
@@ -104,25 +255,45 @@ public class AiCodeGeneratorFacade {
      *
      * @param codeStream  代码流
      * @param codeGenType 代码生成类型
+     * @param userMessage 用户提示词，保存成功后按它缓存完整输出；回放缓存时为 null
      * @return 流式响应
      */
-    private Flux<String> processCodeStream(Flux<String> codeStream, CodeGenTypeEnum codeGenType,Long appId) {
-        StringBuilder codeBuilder = new StringBuilder();
-        return codeStream.doOnNext(chunk -> {
-            // 实时收集代码片段
-            codeBuilder.append(chunk);
-        }).doOnComplete(() -> {
-            // 流式返回完成后保存代码
-            try {
-                String completeCode = codeBuilder.toString();
-                // 使用执行器解析代码
-                Object parsedResult = CodeParserExecutor.executeParser(completeCode, codeGenType);
-                // 使用执行器保存代码
-                File savedDir = CodeFileSaverExecutor.executeSaver(codeGenType,parsedResult,appId);
-                log.info("保存成功，路径为：" + savedDir.getAbsolutePath());
-            } catch (Exception e) {
-                log.error("保存失败: {}", e.getMessage());
-            }
+    private Flux<String> processCodeStream(Flux<String> codeStream, CodeGenTypeEnum codeGenType, Long appId, String userMessage) {
+        return Flux.defer(() -> {
+            // 边接收边解析，识别到的代码块直接追加写入暂存目录
+            CodeFileStreamSession session = CodeFileSaverExecutor.openStream(codeGenType, appId);
+            // 每写完一个文件预览即可看到，失效预览缓存
+            session.setPreviewListener(staticResourceCache::invalidate);
+            StreamingCodeParser parser = new StreamingCodeParser(session);
+            // 收集完整输出用于缓存，超过缓存的单条上限后丢弃，不再占用内存
+            long maxCacheChars = userMessage == null ? 0 : generationResultCache.getMaxEntryChars();
+            AtomicReference<StringBuilder> output = new AtomicReference<>(maxCacheChars > 0 ? new StringBuilder() : null);
+            return codeStream.publishOn(GENERATION_IO_SCHEDULER).doOnNext(chunk -> {
+                parser.feed(chunk);
+                StringBuilder builder = output.get();
+                if (builder != null) {
+                    if (builder.length() + chunk.length() > maxCacheChars) {
+                        output.set(null);
+                    } else {
+                        builder.append(chunk);
+                    }
+                }
+            }).doOnComplete(() -> {
+                // 流式返回完成后发布到正式目录
+                try {
+                    parser.finish();
+                    File savedDir = session.commit();
+                    // 新版本发布后失效预览缓存
+                    staticResourceCache.invalidate(savedDir.getName());
+                    log.info("保存成功，路径为：" + savedDir.getAbsolutePath());
+                    StringBuilder builder = output.get();
+                    if (builder != null) {
+                        generationResultCache.put(userMessage, codeGenType, builder.toString());
+                    }
+                } catch (Exception e) {
+                    log.error("保存失败: {}", e.getMessage());
+                }
+            }).doOnError(e -> session.abort()).doOnCancel(session::abort);
         });
     }
 }
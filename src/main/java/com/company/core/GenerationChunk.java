@@ -0,0 +1,50 @@
+package com.company.core;
+
+import lombok.Getter;
+
+/**
+ * 生成过程中的一段内容，序号在一次生成内从 1 开始递增，作为 SSE 事件 id
+ */
+@Getter
+public class GenerationChunk {
+
+    private final long seq;
+
+    private final String content;
+
+    /**
+     * 是否为断点之后有内容已丢失的提示（不携带内容）
+     */
+    private final boolean resync;
+
+    /**
+     * 排队位置（从 1 开始），大于 0 时为排队提示（不携带内容和序号）
+     */
+    private final int queuePosition;
+
+    private GenerationChunk(long seq, String content, boolean resync, int queuePosition) {
+        this.seq = seq;
+        this.content = content;
+        this.resync = resync;
+        this.queuePosition = queuePosition;
+    }
+
+    public static GenerationChunk of(long seq, String content) {
+        return new GenerationChunk(seq, content, false, 0);
+    }
+
+    public static GenerationChunk resync(long seq) {
+        return new GenerationChunk(seq, null, true, 0);
+    }
+
+    public static GenerationChunk queued(int position) {
+        return new GenerationChunk(0, null, false, position);
+    }
+
+    /**
+     * 是否为排队提示
+     */
+    public boolean isQueued() {
+        return queuePosition > 0;
+    }
+}
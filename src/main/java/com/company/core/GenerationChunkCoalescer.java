@@ -0,0 +1,144 @@
+package com.company.core;
+
+import org.reactivestreams.Subscription;
+import reactor.core.Disposable;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 生成内容合并
+ * 模型逐 token 返回的内容很碎，按字符数和时间窗口合并后再推送，减少 SSE 事件数和写出次数：
+ * 累计达到 maxChars 或距第一段未推送内容超过 window 时推送，合并后的序号为其中最后一段的序号（断线重连仍然准确）。
+ * 按下游需求向上游逐段请求：下游没有需求时不再读取上游，待推送的内容最多一批加少量已合并的段，慢客户端不会让内容堆在内存中
+ */
+public class GenerationChunkCoalescer {
+
+    private static final Scheduler TIMER = Schedulers.parallel();
+
+    /**
+     * 合并内容流
+     *
+     * @param source   内容流
+     * @param maxChars 合并的最大字符数
+     * @param window   最长等待时间，为 0 时不合并
+     */
+    public static Flux<GenerationChunk> coalesce(Flux<GenerationChunk> source, int maxChars, Duration window) {
+        if (window.isZero() || window.isNegative() || maxChars <= 1) {
+            return source;
+        }
+        return Flux.create(sink -> new Batch(sink, maxChars, window.toNanos()).subscribeTo(source));
+    }
+
+    /**
+     * 一个订阅的合并状态，所有状态在 this 上同步（上游线程、定时器线程和下游请求都会访问）
+     */
+    private static class Batch extends BaseSubscriber<GenerationChunk> {
+
+        private final FluxSink<GenerationChunk> sink;
+
+        private final int maxChars;
+
+        private final long windowNanos;
+
+        private final StringBuilder pending;
+
+        private long lastSeq;
+
+        private Disposable timer;
+
+        /**
+         * 上游有一个未完成的请求
+         */
+        private boolean requested;
+
+        private Batch(FluxSink<GenerationChunk> sink, int maxChars, long windowNanos) {
+            this.sink = sink;
+            this.maxChars = maxChars;
+            this.windowNanos = windowNanos;
+            this.pending = new StringBuilder(Math.min(maxChars, 4096));
+        }
+
+        private void subscribeTo(Flux<GenerationChunk> source) {
+            source.subscribe(this);
+            sink.onRequest(n -> requestMore());
+            sink.onDispose(() -> {
+                dispose();
+                synchronized (this) {
+                    cancelTimer();
+                }
+            });
+        }
+
+        @Override
+        protected void hookOnSubscribe(Subscription subscription) {
+            // 由下游需求驱动，不预先请求
+        }
+
+        @Override
+        protected synchronized void hookOnNext(GenerationChunk chunk) {
+            requested = false;
+            if (chunk.isResync() || chunk.isQueued()) {
+                flush();
+                sink.next(chunk);
+            } else {
+                pending.append(chunk.getContent());
+                lastSeq = chunk.getSeq();
+                if (pending.length() >= maxChars) {
+                    flush();
+                } else if (timer == null) {
+                    timer = TIMER.schedule(this::onTimer, windowNanos, TimeUnit.NANOSECONDS);
+                }
+            }
+            requestMore();
+        }
+
+        /**
+         * 下游还有需求时向上游再请求一段
+         */
+        private synchronized void requestMore() {
+            if (!requested && !isDisposed() && sink.requestedFromDownstream() > 0) {
+                requested = true;
+                request(1);
+            }
+        }
+
+        private synchronized void onTimer() {
+            timer = null;
+            flush();
+        }
+
+        @Override
+        protected synchronized void hookOnError(Throwable error) {
+            flush();
+            sink.error(error);
+        }
+
+        @Override
+        protected synchronized void hookOnComplete() {
+            flush();
+            sink.complete();
+        }
+
+        private void flush() {
+            cancelTimer();
+            if (pending.isEmpty()) {
+                return;
+            }
+            sink.next(GenerationChunk.of(lastSeq, pending.toString()));
+            pending.setLength(0);
+        }
+
+        private void cancelTimer() {
+            if (timer != null) {
+                timer.dispose();
+                timer = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,362 @@
+package com.company.core;
+
+import com.company.constant.AppConstant;
+import com.company.exception.BusinessException;
+import com.company.exception.ErrorCode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+/**
+ * 生成任务调度
+ * 限制同时进行的模型流式调用数，超出的任务排队：
+ * 每个用户有令牌桶限制发起频率；用户之间按权重公平排队（加权公平队列，按虚拟完成时间出队，
+ * 连续提交很多任务的用户不会挡住其他用户）；预计等待时间超过上限的任务直接拒绝，不再排队。
+ * 所有状态在 this 上同步，回调在锁外执行
+ */
+@Slf4j
+@Component
+public class GenerationScheduler {
+
+    /**
+     * 还没有执行记录时假定的单次生成耗时（毫秒）
+     */
+    private static final long INITIAL_GENERATION_MILLIS = 60 * 1000L;
+
+    /**
+     * 令牌桶数量超过该值时清理已经回满的桶
+     */
+    private static final int MAX_IDLE_BUCKETS = 10_000;
+
+    private final int maxConcurrent;
+
+    private final int maxQueueSize;
+
+    private final int userBurst;
+
+    private final long userRefillNanos;
+
+    private final long queueSloMillis;
+
+    private final LongSupplier nanoClock;
+
+    /**
+     * 等待中的任务，按虚拟完成时间排序（相同时先到先出）
+     */
+    private final TreeSet<Ticket> queue = new TreeSet<>(
+            Comparator.comparingDouble((Ticket ticket) -> ticket.finishTag).thenComparingLong(ticket -> ticket.arrival));
+
+    /**
+     * 每个用户最后一个任务的虚拟完成时间
+     */
+    private final Map<Long, Double> userFinishTags = new HashMap<>();
+
+    private final Map<Long, TokenBucket> buckets = new HashMap<>();
+
+    /**
+     * 系统虚拟时间：最近出队任务的虚拟完成时间
+     */
+    private double virtualTime;
+
+    private long arrivalSeq;
+
+    private long positionVersion;
+
+    private int running;
+
+    private long rejectedCount;
+
+    /**
+     * 单次生成耗时的指数移动平均，用于估算排队时间
+     */
+    private double averageGenerationMillis = INITIAL_GENERATION_MILLIS;
+
+    public GenerationScheduler() {
+        this(AppConstant.GENERATION_MAX_CONCURRENT, AppConstant.GENERATION_MAX_QUEUE_SIZE, AppConstant.GENERATION_USER_BURST,
+                AppConstant.GENERATION_USER_REFILL_MILLIS, AppConstant.GENERATION_QUEUE_SLO_MILLIS, System::nanoTime);
+    }
+
+    /**
+     * 指定名额和排队限制，用户限流使用默认值（用于压测等需要调整容量的场景）
+     *
+     * @param maxConcurrent  同时进行的生成任务数上限
+     * @param maxQueueSize   排队的生成任务数上限
+     * @param queueSloMillis 排队预计等待时间上限（毫秒）
+     */
+    public GenerationScheduler(int maxConcurrent, int maxQueueSize, long queueSloMillis) {
+        this(maxConcurrent, maxQueueSize, AppConstant.GENERATION_USER_BURST, AppConstant.GENERATION_USER_REFILL_MILLIS,
+                queueSloMillis, System::nanoTime);
+    }
+
+    GenerationScheduler(int maxConcurrent, int maxQueueSize, int userBurst, long userRefillMillis, long queueSloMillis,
+                        LongSupplier nanoClock) {
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueueSize = maxQueueSize;
+        this.userBurst = userBurst;
+        this.userRefillNanos = userRefillMillis * 1_000_000L;
+        this.queueSloMillis = queueSloMillis;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * 提交一个生成任务，有空闲名额时立即开始，否则排队
+     *
+     * @param userId 用户ID
+     * @param weight 权重，越大分到的名额越多
+     * @param task   任务
+     * @throws BusinessException 用户提交过于频繁，或预计等待时间超过上限
+     */
+    public void submit(Long userId, int weight, Task task) {
+        Ticket ticket = new Ticket(userId, Math.max(weight, 1), task);
+        List<Runnable> callbacks = new ArrayList<>();
+        boolean startNow;
+        synchronized (this) {
+            if (!tryAcquireToken(userId)) {
+                rejectedCount++;
+                throw new BusinessException(ErrorCode.TOO_MANY_REQUEST, "生成过于频繁，请稍后再试");
+            }
+            startNow = running < maxConcurrent && queue.isEmpty();
+            if (startNow) {
+                running++;
+                ticket.startedAt = nanoClock.getAsLong();
+            } else {
+                enqueue(ticket);
+                int position = queue.headSet(ticket).size() + 1;
+                if (queue.size() > maxQueueSize || estimateWaitMillis(position) > queueSloMillis) {
+                    // 排不上的任务不占用令牌，也不计入用户的虚拟时间
+                    queue.remove(ticket);
+                    restoreUserFinishTag(ticket);
+                    refundToken(userId);
+                    rejectedCount++;
+                    throw new BusinessException(ErrorCode.TOO_MANY_REQUEST, "当前生成排队人数过多，请稍后再试");
+                }
+                collectPositions(callbacks);
+            }
+        }
+        callbacks.forEach(Runnable::run);
+        if (startNow) {
+            start(ticket);
+        }
+    }
+
+    public synchronized int getRunningCount() {
+        return running;
+    }
+
+    public synchronized int getQueuedCount() {
+        return queue.size();
+    }
+
+    public synchronized long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    /**
+     * 任务结束，名额交给排在最前面的任务
+     */
+    private void release(Ticket finished) {
+        List<Ticket> started = new ArrayList<>();
+        List<Runnable> callbacks = new ArrayList<>();
+        synchronized (this) {
+            running--;
+            long elapsedMillis = (nanoClock.getAsLong() - finished.startedAt) / 1_000_000L;
+            averageGenerationMillis = averageGenerationMillis * 0.8 + elapsedMillis * 0.2;
+            while (running < maxConcurrent && !queue.isEmpty()) {
+                Ticket next = queue.pollFirst();
+                removeIdleUser(next);
+                virtualTime = next.finishTag;
+                running++;
+                next.startedAt = nanoClock.getAsLong();
+                started.add(next);
+            }
+            if (!started.isEmpty()) {
+                collectPositions(callbacks);
+            }
+        }
+        started.forEach(this::start);
+        callbacks.forEach(Runnable::run);
+    }
+
+    private void start(Ticket ticket) {
+        try {
+            ticket.task.start(ticket);
+        } catch (RuntimeException e) {
+            log.error("生成任务启动失败", e);
+            ticket.release();
+        }
+    }
+
+    /**
+     * 计算虚拟完成时间后入队：用户上一个任务完成之后，或者当前系统虚拟时间之后（用户空闲期间不积累额度）
+     */
+    private void enqueue(Ticket ticket) {
+        double startTag = Math.max(virtualTime, userFinishTags.getOrDefault(ticket.userId, 0.0));
+        ticket.finishTag = startTag + 1.0 / ticket.weight;
+        ticket.arrival = ++arrivalSeq;
+        ticket.previousUserFinishTag = userFinishTags.get(ticket.userId);
+        userFinishTags.put(ticket.userId, ticket.finishTag);
+        queue.add(ticket);
+    }
+
+    /**
+     * 用户已没有排队任务时不再保留其虚拟完成时间（不会超过系统虚拟时间）。
+     * 同一用户的虚拟完成时间严格递增，记录的值等于出队任务的值说明它是该用户最后一个排队任务
+     */
+    private void removeIdleUser(Ticket dequeued) {
+        userFinishTags.remove(dequeued.userId, dequeued.finishTag);
+    }
+
+    private void restoreUserFinishTag(Ticket ticket) {
+        if (ticket.previousUserFinishTag == null) {
+            userFinishTags.remove(ticket.userId);
+        } else {
+            userFinishTags.put(ticket.userId, ticket.previousUserFinishTag);
+        }
+    }
+
+    /**
+     * 排队位置有变化的任务，生成通知回调（在锁外执行）
+     */
+    private void collectPositions(List<Runnable> callbacks) {
+        long version = ++positionVersion;
+        int position = 0;
+        for (Ticket ticket : queue) {
+            position++;
+            if (ticket.notifiedPosition != position) {
+                ticket.notifiedPosition = position;
+                int current = position;
+                callbacks.add(() -> ticket.task.onQueued(version, current));
+            }
+        }
+    }
+
+    private long estimateWaitMillis(int position) {
+        long rounds = (position + maxConcurrent - 1) / maxConcurrent;
+        return (long) (rounds * averageGenerationMillis);
+    }
+
+    private boolean tryAcquireToken(Long userId) {
+        long now = nanoClock.getAsLong();
+        if (buckets.size() > MAX_IDLE_BUCKETS) {
+            removeFullBuckets(now);
+        }
+        TokenBucket bucket = buckets.computeIfAbsent(userId, id -> new TokenBucket(userBurst, now));
+        bucket.refill(now, userBurst, userRefillNanos);
+        if (bucket.tokens < 1) {
+            return false;
+        }
+        bucket.tokens--;
+        return true;
+    }
+
+    private void refundToken(Long userId) {
+        TokenBucket bucket = buckets.get(userId);
+        if (bucket != null) {
+            bucket.tokens = Math.min(userBurst, bucket.tokens + 1);
+        }
+    }
+
+    private void removeFullBuckets(long now) {
+        Iterator<TokenBucket> iterator = buckets.values().iterator();
+        while (iterator.hasNext()) {
+            TokenBucket bucket = iterator.next();
+            bucket.refill(now, userBurst, userRefillNanos);
+            if (bucket.tokens >= userBurst) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * 生成任务
+     */
+    public interface Task {
+
+        /**
+         * 排队位置变化，从 1 开始；通知可能乱序到达，version 较小的是旧位置
+         *
+         * @param version  通知版本
+         * @param position 排队位置
+         */
+        void onQueued(long version, int position);
+
+        /**
+         * 获得名额，开始执行；执行结束（包括失败）后必须调用 {@link Ticket#release()}
+         *
+         * @param ticket 名额
+         */
+        void start(Ticket ticket);
+    }
+
+    /**
+     * 一个任务的排队状态和执行名额
+     */
+    public class Ticket {
+
+        private final Long userId;
+
+        private final int weight;
+
+        private final Task task;
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private double finishTag;
+
+        private Double previousUserFinishTag;
+
+        private long arrival;
+
+        private int notifiedPosition;
+
+        private long startedAt;
+
+        private Ticket(Long userId, int weight, Task task) {
+            this.userId = userId;
+            this.weight = weight;
+            this.task = task;
+        }
+
+        /**
+         * 释放名额，重复调用无效
+         */
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                GenerationScheduler.this.release(this);
+            }
+        }
+    }
+
+    /**
+     * 用户令牌桶，每 refillNanos 恢复一个令牌，最多 capacity 个
+     */
+    private static class TokenBucket {
+
+        private double tokens;
+
+        private long lastRefillNanos;
+
+        private TokenBucket(int capacity, long now) {
+            this.tokens = capacity;
+            this.lastRefillNanos = now;
+        }
+
+        private void refill(long now, int capacity, long refillNanos) {
+            if (refillNanos <= 0) {
+                tokens = capacity;
+            } else {
+                tokens = Math.min(capacity, tokens + (double) (now - lastRefillNanos) / refillNanos);
+            }
+            lastRefillNanos = now;
+        }
+    }
+}
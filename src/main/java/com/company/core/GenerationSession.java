@@ -0,0 +1,130 @@
+package com.company.core;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 一次流式生成会话
+ * 上游只订阅一次，内容编号后放入有界的环形缓冲区；订阅者（包括断线重连）根据最后收到的序号只接收缺少的部分，
+ * 上游不随订阅者断开而取消。需要的内容已被挤出缓冲区时先发送一个 resync 提示；
+ * 上游开始之前（排队中）订阅者会收到当前的排队位置
+ */
+public class GenerationSession {
+
+    /**
+     * 生成类型 + 消息摘要，相同请求共用一个会话
+     */
+    private final String key;
+
+    private final Sinks.Many<GenerationChunk> sink;
+
+    /**
+     * 排队位置，只保留最新一个；不在排队中为 0，开始生成时推送 0 并结束
+     */
+    private final Sinks.Many<Integer> queuePositions = Sinks.many().replay().latest();
+
+    private long queueVersion;
+
+    private final AtomicLong seq = new AtomicLong();
+
+    private final AtomicBoolean started = new AtomicBoolean();
+
+    /**
+     * 结束时间，进行中为 0
+     */
+    private volatile long completedAt;
+
+    public GenerationSession(String key, int bufferSize) {
+        this.key = key;
+        this.sink = Sinks.many().replay().limit(bufferSize);
+        this.queuePositions.tryEmitNext(0);
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * 是否由当前调用方负责启动上游（只有第一次返回 true）
+     */
+    boolean markStarted() {
+        return started.compareAndSet(false, true);
+    }
+
+    /**
+     * 更新排队位置，忽略比已推送版本旧的通知
+     */
+    synchronized void queued(long version, int position) {
+        if (version > queueVersion) {
+            queueVersion = version;
+            queuePositions.tryEmitNext(position);
+        }
+    }
+
+    /**
+     * 排队结束，开始生成
+     */
+    synchronized void dispatched() {
+        queueVersion = Long.MAX_VALUE;
+        queuePositions.tryEmitNext(0);
+        queuePositions.tryEmitComplete();
+    }
+
+    /**
+     * 推送一段内容，由上游按顺序调用
+     */
+    void emit(String content) {
+        sink.tryEmitNext(GenerationChunk.of(seq.incrementAndGet(), content));
+    }
+
+    void complete() {
+        completedAt = System.currentTimeMillis();
+        sink.tryEmitComplete();
+    }
+
+    void error(Throwable error) {
+        completedAt = System.currentTimeMillis();
+        // 排队期间被拒绝时结束排队提示，订阅者随后收到错误
+        dispatched();
+        sink.tryEmitError(error);
+    }
+
+    public boolean isCompleted() {
+        return completedAt > 0;
+    }
+
+    /**
+     * 结束后是否已超过保留时间
+     */
+    public boolean isExpired(long retainMillis) {
+        long completed = completedAt;
+        return completed > 0 && System.currentTimeMillis() - completed > retainMillis;
+    }
+
+    /**
+     * 订阅序号大于 lastEventId 的内容
+     *
+     * @param lastEventId 客户端最后收到的序号，新连接为 0
+     */
+    public Flux<GenerationChunk> stream(long lastEventId) {
+        return Flux.defer(() -> {
+            AtomicLong expected = new AtomicLong(lastEventId + 1);
+            Flux<GenerationChunk> queueFlux = queuePositions.asFlux()
+                    .takeWhile(position -> position > 0)
+                    .map(GenerationChunk::queued);
+            return queueFlux.concatWith(sink.asFlux()
+                    .filter(chunk -> chunk.getSeq() >= expected.get())
+                    .flatMapIterable(chunk -> {
+                        long missingFrom = expected.getAndSet(chunk.getSeq() + 1);
+                        if (chunk.getSeq() > missingFrom) {
+                            return List.of(GenerationChunk.resync(missingFrom), chunk);
+                        }
+                        return List.of(chunk);
+                    }));
+        });
+    }
+}
@@ -0,0 +1,150 @@
+package com.company.core.parser;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 代码块收集器
+ * 接收增量解析事件，按语言保留第一个代码块，带文件路径的代码块另按路径保留第一个，供各类型解析器组装最终结果
+ */
+public class CodeBlockCollector implements CodeBlockListener {
+
+    /**
+     * 语言 -> 第一个完整代码块
+     */
+    private final Map<String, String> blocks = new HashMap<>();
+
+    /**
+     * 文件路径 -> 第一个完整代码块，按出现顺序
+     */
+    private final Map<String, String> files = new LinkedHashMap<>();
+
+    /**
+     * 语言 -> 第一个没有文件路径的代码块
+     */
+    private final Map<String, String> untitledBlocks = new HashMap<>();
+
+    /**
+     * 代码块之外的文本
+     */
+    private final StringBuilder plainText = new StringBuilder();
+
+    /**
+     * 是否按语言收集当前代码块，同语言已收集过时为 false
+     */
+    private boolean collecting;
+
+    /**
+     * 按路径收集当前代码块时的路径，没有路径或同路径已收集过时为 null
+     */
+    private String currentPath;
+
+    /**
+     * 是否作为没有路径的代码块收集
+     */
+    private boolean collectingUntitled;
+
+    /**
+     * 当前代码块只有一个片段时直接保存（完整输出一次解析时常见），避免复制
+     */
+    private String single;
+
+    /**
+     * 当前代码块有多个片段时拼接
+     */
+    private StringBuilder current;
+
+    @Override
+    public void onBlockStart(String language) {
+        onBlockStart(language, null);
+    }
+
+    @Override
+    public void onBlockStart(String language, String path) {
+        collecting = !blocks.containsKey(language);
+        currentPath = path == null || files.containsKey(path) ? null : path;
+        collectingUntitled = path == null && !untitledBlocks.containsKey(language);
+        single = null;
+        current = null;
+    }
+
+    @Override
+    public void onBlockContent(String language, String content) {
+        if (!collecting && currentPath == null && !collectingUntitled) {
+            return;
+        }
+        if (current != null) {
+            current.append(content);
+        } else if (single == null) {
+            single = content;
+        } else {
+            current = new StringBuilder(single.length() + content.length()).append(single).append(content);
+            single = null;
+        }
+    }
+
+    @Override
+    public void onBlockEnd(String language) {
+        if (!collecting && currentPath == null && !collectingUntitled) {
+            return;
+        }
+        String block = current != null ? current.toString() : single == null ? "" : single;
+        if (collecting) {
+            blocks.put(language, block);
+        }
+        if (currentPath != null) {
+            files.put(currentPath, block);
+        }
+        if (collectingUntitled) {
+            untitledBlocks.put(language, block);
+        }
+        collecting = false;
+        currentPath = null;
+        collectingUntitled = false;
+        single = null;
+        current = null;
+    }
+
+    @Override
+    public void onText(String text) {
+        plainText.append(text);
+    }
+
+    /**
+     * 获取某种语言的代码块
+     *
+     * @param language 语言
+     * @return 代码块内容，不存在返回 null
+     */
+    public String getBlock(String language) {
+        return blocks.get(language);
+    }
+
+    /**
+     * 获取某种语言第一个没有文件路径的代码块
+     *
+     * @param language 语言
+     * @return 代码块内容，不存在返回 null
+     */
+    public String getUntitledBlock(String language) {
+        return untitledBlocks.get(language);
+    }
+
+    /**
+     * 获取带文件路径的代码块
+     *
+     * @return 文件路径（未校验）-> 内容，按出现顺序
+     */
+    public Map<String, String> getFiles() {
+        return Collections.unmodifiableMap(files);
+    }
+
+    /**
+     * 获取代码块之外的文本
+     */
+    public String getPlainText() {
+        return plainText.toString();
+    }
+}
@@ -0,0 +1,48 @@
+package com.company.core.parser;
+
+/**
+ * 增量解析事件监听器
+ * 由 StreamingCodeParser 在识别到代码块的开始、内容、结束时回调
+ */
+public interface CodeBlockListener {
+
+    /**
+     * 代码块开始
+     *
+     * @param language 代码块语言（已统一为小写，javascript 归一为 js）
+     */
+    void onBlockStart(String language);
+
+    /**
+     * 代码块开始，语言标识中带有文件路径时一并传入
+     *
+     * @param language 代码块语言
+     * @param path     语言标识中的文件路径（未校验），没有时为 null
+     */
+    default void onBlockStart(String language, String path) {
+        onBlockStart(language);
+    }
+
+    /**
+     * 代码块内容片段（同一个代码块可能回调多次）
+     *
+     * @param language 代码块语言
+     * @param content  内容片段
+     */
+    void onBlockContent(String language, String content);
+
+    /**
+     * 代码块结束（遇到闭合的 ``` 或流结束时仍未闭合）
+     *
+     * @param language 代码块语言
+     */
+    void onBlockEnd(String language);
+
+    /**
+     * 代码块之外的普通文本
+     *
+     * @param text 文本片段
+     */
+    default void onText(String text) {
+    }
+}
@@ -13,4 +13,12 @@ public interface CodeParser<T> {
      * @return
      */
     T parse(String codeContent);
+
+    /**
+     * 根据增量解析收集到的代码块组装结果
+     *
+     * @param collector 代码块收集器
+     * @return
+     */
+    T parse(CodeBlockCollector collector);
 }
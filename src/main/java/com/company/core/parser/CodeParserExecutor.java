@@ -7,11 +7,29 @@ import com.company.exception.ErrorCode;
 public class CodeParserExecutor {
     private static final HtmlCodeParser htmlCodeParser = new HtmlCodeParser();
     private static final MultiFileCodeParser multiFileCodeParser = new MultiFileCodeParser();
+    private static final ProjectCodeParser projectCodeParser = new ProjectCodeParser();
 
     public static Object executeParser(String codeContent, CodeGenTypeEnum codeGenTypeEnum) {
         return switch (codeGenTypeEnum) {
             case HTML -> htmlCodeParser.parse(codeContent);
             case MULTI_FILE -> multiFileCodeParser.parse(codeContent);
+            case PROJECT -> projectCodeParser.parse(codeContent);
+            default -> throw new BusinessException(ErrorCode.SYSTEM_ERROR, "不支持的生成类型" + codeGenTypeEnum.getValue());
+        };
+    }
+
+    /**
+     * 根据增量解析收集到的代码块组装结果
+     *
+     * @param collector       代码块收集器
+     * @param codeGenTypeEnum 生成类型
+     * @return 解析结果
+     */
+    public static Object executeParser(CodeBlockCollector collector, CodeGenTypeEnum codeGenTypeEnum) {
+        return switch (codeGenTypeEnum) {
+            case HTML -> htmlCodeParser.parse(collector);
+            case MULTI_FILE -> multiFileCodeParser.parse(collector);
+            case PROJECT -> projectCodeParser.parse(collector);
             default -> throw new BusinessException(ErrorCode.SYSTEM_ERROR, "不支持的生成类型" + codeGenTypeEnum.getValue());
         };
     }
@@ -27,6 +27,19 @@ public class HtmlCodeParser implements CodeParser<HtmlCodeResult>{
         return result;
     }
 
+    @Override
+    public HtmlCodeResult parse(CodeBlockCollector collector) {
+        HtmlCodeResult result = new HtmlCodeResult();
+        String htmlCode = collector.getBlock("html");
+        if (htmlCode != null && !htmlCode.trim().isEmpty()) {
+            result.setHtmlCode(htmlCode.trim());
+        } else {
+            // 如果没有找到代码块，将代码块之外的内容作为HTML
+            result.setHtmlCode(collector.getPlainText().trim());
+        }
+        return result;
+    }
+
     /**
      * 提取HTML代码内容
      *
@@ -2,49 +2,32 @@ package com.company.core.parser;
 
 import com.company.ai.model.MultiFileCodeResult;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
+/**
+ * 多文件代码解析器
+ * 完整输出也交给 StreamingCodeParser 一次扫描，按语言收集所有代码块（```javascript 归一为 js，未闭合的最后一个代码块在末尾闭合），
+ * 耗时与输出长度成线性关系，不会因为代码块没有结束标记而反复回溯
+ */
 public class MultiFileCodeParser implements CodeParser<MultiFileCodeResult>{
-    private static final Pattern HTML_CODE_PATTERN = Pattern.compile("```html\\s*\\n([\\s\\S]*?)```", Pattern.CASE_INSENSITIVE);
-    private static final Pattern CSS_CODE_PATTERN = Pattern.compile("```css\\s*\\n([\\s\\S]*?)```", Pattern.CASE_INSENSITIVE);
-    private static final Pattern JS_CODE_PATTERN = Pattern.compile("```(?:js|javascript)\\s*\\n([\\s\\S]*?)```", Pattern.CASE_INSENSITIVE);
 
     @Override
     public MultiFileCodeResult parse(String codeContent) {
-        //创建返回结果实例
+        //一次扫描收集所有代码块
+        CodeBlockCollector collector = new CodeBlockCollector();
+        StreamingCodeParser parser = new StreamingCodeParser(collector);
+        parser.feed(codeContent);
+        parser.finish();
+        return parse(collector);
+    }
+
+    @Override
+    public MultiFileCodeResult parse(CodeBlockCollector collector) {
         MultiFileCodeResult result = new MultiFileCodeResult();
-        //提取多文件的代码
-        String htmlCode = extractCodeByPattern(codeContent, HTML_CODE_PATTERN);
-        String jsCode = extractCodeByPattern(codeContent, JS_CODE_PATTERN);
-        String cssCode = extractCodeByPattern(codeContent, CSS_CODE_PATTERN);
-        //判断各个代码是否为空
-        if (htmlCode != null&&!htmlCode.trim().isEmpty()) {
+        String htmlCode = collector.getBlock("html");
+        if (htmlCode != null && !htmlCode.trim().isEmpty()) {
             result.setHtmlCode(htmlCode);
         }
-        if (jsCode != null) {
-            result.setJsCode(jsCode);
-        }
-        if (cssCode != null) {
-            result.setCssCode(cssCode);
-        }
+        result.setJsCode(collector.getBlock("js"));
+        result.setCssCode(collector.getBlock("css"));
         return result;
     }
-
-    /**
-     * 根据正则模式提取代码
-     *
-     * @param content 原始内容
-     * @param pattern 正则模式
-     * @return 提取的代码
-     */
-    private static String extractCodeByPattern(String content, Pattern pattern) {
-        Matcher matcher = pattern.matcher(content);
-        if (matcher.find()) {
-            return matcher.group(1);
-        }
-        return null;
-    }
-
-
 }
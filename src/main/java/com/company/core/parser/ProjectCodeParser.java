@@ -0,0 +1,45 @@
+package com.company.core.parser;
+
+import com.company.ai.model.ProjectCodeResult;
+import com.company.ai.model.ProjectFile;
+import com.company.constant.AppConstant;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 项目代码解析器
+ * 按代码块标注的文件路径收集任意数量的文件（如 ```js src/components/header.js），一次扫描完成；
+ * 不合法的路径丢弃，同一路径只保留第一个代码块，没有标注路径的 html / css / js 代码块按默认文件名补充
+ */
+public class ProjectCodeParser implements CodeParser<ProjectCodeResult> {
+
+    @Override
+    public ProjectCodeResult parse(String codeContent) {
+        CodeBlockCollector collector = new CodeBlockCollector();
+        StreamingCodeParser parser = new StreamingCodeParser(collector);
+        parser.feed(codeContent);
+        parser.finish();
+        return parse(collector);
+    }
+
+    @Override
+    public ProjectCodeResult parse(CodeBlockCollector collector) {
+        Map<String, String> files = new LinkedHashMap<>();
+        collector.getFiles().forEach((path, content) -> {
+            String filePath = ProjectFilePath.normalize(path);
+            if (filePath != null && files.size() < AppConstant.PROJECT_MAX_FILES) {
+                files.putIfAbsent(filePath, content);
+            }
+        });
+        for (String language : new String[]{"html", "css", "js"}) {
+            String content = collector.getUntitledBlock(language);
+            if (content != null && files.size() < AppConstant.PROJECT_MAX_FILES) {
+                files.putIfAbsent(ProjectFilePath.resolve(language, null), content);
+            }
+        }
+        ProjectCodeResult result = new ProjectCodeResult();
+        files.forEach((path, content) -> result.getFiles().add(new ProjectFile(path, content)));
+        return result;
+    }
+}
@@ -0,0 +1,73 @@
+package com.company.core.parser;
+
+import java.util.regex.Pattern;
+
+/**
+ * 项目模式的文件路径
+ * 代码块标注的路径来自模型输出，保存前统一规范化并校验：只允许相对路径，
+ * 不允许 ..、以 . 开头的文件或目录（避免与暂存文件、版本目录冲突）、盘符和过长过深的路径；
+ * 没有标注路径的 html / css / js 代码块按多文件模式的文件名保存
+ */
+public final class ProjectFilePath {
+
+    /**
+     * 路径最大长度
+     */
+    private static final int MAX_LENGTH = 200;
+
+    /**
+     * 目录最大层数
+     */
+    private static final int MAX_DEPTH = 8;
+
+    private static final Pattern SEGMENT_PATTERN = Pattern.compile("[A-Za-z0-9_@-][A-Za-z0-9._@-]*");
+
+    private ProjectFilePath() {
+    }
+
+    /**
+     * 代码块对应的文件路径
+     *
+     * @param language 代码块语言
+     * @param path     代码块标注的路径，没有时为 null
+     * @return 规范化后的相对路径（以 / 分隔），不合法或不需要保存时返回 null
+     */
+    public static String resolve(String language, String path) {
+        if (path == null) {
+            return switch (language) {
+                case "html" -> "index.html";
+                case "css" -> "style.css";
+                case "js" -> "script.js";
+                default -> null;
+            };
+        }
+        return normalize(path);
+    }
+
+    /**
+     * 规范化并校验路径
+     *
+     * @param path 相对路径，允许 \ 分隔和开头的 ./
+     * @return 规范化后的路径，不合法时返回 null
+     */
+    public static String normalize(String path) {
+        String normalized = path.trim().replace('\\', '/');
+        while (normalized.startsWith("./")) {
+            normalized = normalized.substring(2);
+        }
+        if (normalized.isEmpty() || normalized.length() > MAX_LENGTH || normalized.startsWith("/")) {
+            return null;
+        }
+        String[] segments = normalized.split("/", -1);
+        if (segments.length > MAX_DEPTH) {
+            return null;
+        }
+        for (String segment : segments) {
+            // 同时排除了空段（//）、. 和 ..
+            if (!SEGMENT_PATTERN.matcher(segment).matches()) {
+                return null;
+            }
+        }
+        return normalized;
+    }
+}
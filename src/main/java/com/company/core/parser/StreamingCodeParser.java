@@ -0,0 +1,254 @@
+package com.company.core.parser;
+
+/**
+ * 增量代码块解析器（状态机）
+ * 在大模型逐段输出时直接消费每个片段，识别 ```html / ```css / ```js 等围栏代码块，
+ * 支持围栏标记被拆分在多个片段之间，并通过 CodeBlockListener 实时回调；
+ * 语言标识后面可以带文件路径（如 ```js src/main.js），也可以只写路径（如 ```index.html，语言取扩展名）
+ * 非线程安全，一次生成使用一个实例
+ */
+public class StreamingCodeParser {
+
+    private static final String FENCE = "```";
+
+    private static final int FENCE_LENGTH = FENCE.length();
+
+    private enum State {
+        /**
+         * 代码块之外的普通文本
+         */
+        TEXT,
+        /**
+         * 已读到 ```，正在读取语言标识直到换行
+         */
+        FENCE_INFO,
+        /**
+         * 代码块内容
+         */
+        CODE
+    }
+
+    private final CodeBlockListener listener;
+
+    private State state = State.TEXT;
+
+    /**
+     * 当前状态下待回调的内容
+     */
+    private final StringBuilder segment = new StringBuilder();
+
+    /**
+     * 围栏语言标识
+     */
+    private final StringBuilder info = new StringBuilder();
+
+    /**
+     * 片段末尾尚无法确定是否属于围栏的反引号个数
+     */
+    private int pendingTicks;
+
+    /**
+     * 当前代码块语言
+     */
+    private String language;
+
+    private boolean finished;
+
+    public StreamingCodeParser(CodeBlockListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * 消费一个输出片段
+     *
+     * @param chunk 输出片段
+     */
+    public void feed(String chunk) {
+        if (finished) {
+            throw new IllegalStateException("解析已结束");
+        }
+        if (chunk == null || chunk.isEmpty()) {
+            return;
+        }
+        int i = 0;
+        int len = chunk.length();
+        while (i < len) {
+            i = state == State.FENCE_INFO ? consumeInfo(chunk, i) : consumeBody(chunk, i);
+        }
+        flushSegment();
+    }
+
+    /**
+     * 输出结束，未闭合的代码块视为在末尾闭合
+     */
+    public void finish() {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        releaseTicks();
+        if (state == State.FENCE_INFO) {
+            // 只有 ```xxx 而没有换行，当作普通文本
+            segment.append(FENCE).append(info);
+            info.setLength(0);
+            state = State.TEXT;
+        }
+        flushSegment();
+        if (state == State.CODE) {
+            listener.onBlockEnd(language);
+            state = State.TEXT;
+        }
+    }
+
+    /**
+     * 规范化语言标识，取第一个单词并统一为小写；第一个单词是文件路径时取扩展名
+     *
+     * @param info 围栏后的语言标识
+     * @return 语言
+     */
+    public static String normalizeLanguage(String info) {
+        String first = firstWord(info);
+        if (isPath(first)) {
+            first = first.substring(first.lastIndexOf('.') + 1);
+        }
+        String language = first.toLowerCase();
+        return "javascript".equals(language) ? "js" : language;
+    }
+
+    /**
+     * 取语言标识中的文件路径：语言后面的第二个单词（可以写成 path=xxx、file=xxx 或带引号），或者本身就是路径的第一个单词
+     * 只做提取，路径是否合法由使用方校验
+     *
+     * @param info 围栏后的语言标识
+     * @return 文件路径，没有时返回 null
+     */
+    public static String parsePath(String info) {
+        String[] words = info.trim().split("\\s+");
+        String path;
+        if (words.length >= 2) {
+            path = words[1];
+        } else if (isPath(words[0])) {
+            path = words[0];
+        } else {
+            return null;
+        }
+        int equals = path.indexOf('=');
+        if (equals >= 0) {
+            path = path.substring(equals + 1);
+        }
+        path = path.replaceAll("^[\"'`]+|[\"'`]+$", "");
+        return path.isEmpty() ? null : path;
+    }
+
+    private static String firstWord(String info) {
+        String trimmed = info.trim();
+        int space = 0;
+        while (space < trimmed.length() && !Character.isWhitespace(trimmed.charAt(space))) {
+            space++;
+        }
+        return trimmed.substring(0, space);
+    }
+
+    /**
+     * 单词是否为带扩展名的文件路径（如 index.html、src/main.js）
+     */
+    private static boolean isPath(String word) {
+        int dot = word.lastIndexOf('.');
+        return dot >= 0 && dot < word.length() - 1;
+    }
+
+    /**
+     * 处理普通文本或代码块内容，查找 ```
+     */
+    private int consumeBody(String chunk, int from) {
+        int len = chunk.length();
+        int tick = chunk.indexOf('`', from);
+        if (tick < 0) {
+            releaseTicks();
+            segment.append(chunk, from, len);
+            return len;
+        }
+        if (tick > from) {
+            releaseTicks();
+            segment.append(chunk, from, tick);
+        }
+        int i = tick;
+        while (i < len && chunk.charAt(i) == '`') {
+            pendingTicks++;
+            i++;
+            if (pendingTicks == FENCE_LENGTH) {
+                pendingTicks = 0;
+                onFence();
+                return i;
+            }
+        }
+        if (i < len) {
+            // 后面不是反引号，说明只是普通字符
+            releaseTicks();
+        }
+        return i;
+    }
+
+    /**
+     * 读取围栏后的语言标识
+     */
+    private int consumeInfo(String chunk, int from) {
+        int len = chunk.length();
+        for (int i = from; i < len; i++) {
+            char c = chunk.charAt(i);
+            if (c == '\n') {
+                String header = info.toString();
+                language = normalizeLanguage(header);
+                info.setLength(0);
+                state = State.CODE;
+                listener.onBlockStart(language, parsePath(header));
+                return i + 1;
+            }
+            if (c == '`') {
+                // 语言标识中不允许出现反引号，说明这不是代码块，退回普通文本
+                segment.append(FENCE).append(info);
+                info.setLength(0);
+                state = State.TEXT;
+                return i;
+            }
+            info.append(c);
+        }
+        return len;
+    }
+
+    /**
+     * 遇到完整的 ```
+     */
+    private void onFence() {
+        flushSegment();
+        if (state == State.CODE) {
+            listener.onBlockEnd(language);
+            language = null;
+            state = State.TEXT;
+        } else {
+            state = State.FENCE_INFO;
+        }
+    }
+
+    /**
+     * 不足三个的反引号作为普通字符写回
+     */
+    private void releaseTicks() {
+        for (; pendingTicks > 0; pendingTicks--) {
+            segment.append('`');
+        }
+    }
+
+    private void flushSegment() {
+        if (segment.isEmpty()) {
+            return;
+        }
+        String content = segment.toString();
+        segment.setLength(0);
+        if (state == State.CODE) {
+            listener.onBlockContent(language, content);
+        } else {
+            listener.onText(content);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.company.core.saver;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import com.company.constant.AppConstant;
+import com.company.core.storage.CodeStorageFactory;
+import com.company.exception.BusinessException;
+import com.company.exception.ErrorCode;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * 内容寻址的文件存储
+ * 文件内容按 SHA-256 存为 .blobs/{前两位}/{哈希}，版本目录和部署目录中的文件都是指向它的硬链接，
+ * 相同内容（如默认的样式、脚本文件）在磁盘上只存一份，部署只需要创建链接
+ * 链接出来的文件与其他目录共享数据，只能整体替换，不能原地修改
+ */
+@Slf4j
+public class CodeBlobStore {
+
+    private static final Path BLOB_ROOT = Paths.get(AppConstant.CODE_OUTPUT_ROOT_DIR, ".blobs");
+
+    private static final Path TMP_ROOT = BLOB_ROOT.resolve(".tmp");
+
+    /**
+     * 保存内容，返回对应的存储文件
+     *
+     * @param bytes 文件内容
+     * @return 存储文件
+     */
+    public static Path put(byte[] bytes) {
+        Path blob = blobPath(DigestUtil.sha256Hex(bytes));
+        if (Files.exists(blob)) {
+            return blob;
+        }
+        try {
+            Files.createDirectories(TMP_ROOT);
+            Path tmp = TMP_ROOT.resolve(IdUtil.fastSimpleUUID());
+            Files.write(tmp, bytes);
+            moveIntoStore(tmp, blob);
+            return blob;
+        } catch (IOException e) {
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "写入文件存储失败");
+        }
+    }
+
+    /**
+     * 将内容写到目标位置（硬链接到存储文件）
+     *
+     * @param bytes  文件内容
+     * @param target 目标文件
+     */
+    public static void write(byte[] bytes, Path target) {
+        try {
+            try {
+                link(put(bytes), target);
+            } catch (NoSuchFileException e) {
+                // 存储文件恰好被回收，重新写入一次
+                link(put(bytes), target);
+            }
+        } catch (IOException e) {
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "写入文件失败：" + target.getFileName());
+        }
+    }
+
+    /**
+     * 将目录下已写好的普通文件收入存储，原文件替换为指向存储文件的硬链接
+     *
+     * @param dir 目录
+     */
+    public static void ingest(Path dir) {
+        // 新增、替换了链接的目录，开启 fsync 时最后统一同步
+        Set<Path> changedDirs = new LinkedHashSet<>();
+        for (Path file : listFiles(dir)) {
+            try {
+                Path blob = blobPath(DigestUtil.sha256Hex(file.toFile()));
+                if (Files.exists(blob)) {
+                    if (!Files.isSameFile(blob, file)) {
+                        link(blob, file);
+                        changedDirs.add(file.getParent());
+                    }
+                } else {
+                    // 新内容不复制数据，直接给已写好的文件再加一个存储路径
+                    Files.createDirectories(blob.getParent());
+                    Files.createLink(blob, file);
+                    changedDirs.add(blob.getParent());
+                }
+            } catch (FileAlreadyExistsException e) {
+                // 并发写入了相同内容，保持原文件即可
+            } catch (IOException | UnsupportedOperationException e) {
+                log.warn("文件收入存储失败，保留原文件：{}", file, e);
+            }
+        }
+        if (CodeStorageFactory.isFsync()) {
+            changedDirs.forEach(CodeFileWriter::syncDirectory);
+        }
+    }
+
+    /**
+     * 以硬链接方式把源目录完整复制到目标目录（不复制文件数据）
+     *
+     * @param sourceDir 源目录
+     * @param targetDir 目标目录
+     */
+    public static void linkTree(Path sourceDir, Path targetDir) {
+        for (Path file : listFiles(sourceDir)) {
+            Path target = targetDir.resolve(sourceDir.relativize(file).toString());
+            try {
+                link(file, target);
+            } catch (IOException e) {
+                throw new BusinessException(ErrorCode.SYSTEM_ERROR, "创建文件链接失败：" + target.getFileName());
+            }
+        }
+    }
+
+    /**
+     * 删除目录，并回收只剩存储本身引用的存储文件
+     *
+     * @param dir 目录
+     */
+    public static void deleteTree(Path dir) {
+        List<Path> candidates = new ArrayList<>();
+        for (Path file : listFiles(dir)) {
+            try {
+                // 只被本目录和存储引用
+                if (linkCount(file) == 2) {
+                    Path blob = blobPath(DigestUtil.sha256Hex(file.toFile()));
+                    if (Files.exists(blob) && Files.isSameFile(blob, file)) {
+                        candidates.add(blob);
+                    }
+                }
+            } catch (IOException | UnsupportedOperationException e) {
+                // 不支持硬链接计数的文件系统不做回收
+            }
+        }
+        FileUtil.del(dir.toFile());
+        for (Path blob : candidates) {
+            try {
+                if (linkCount(blob) == 1) {
+                    Files.deleteIfExists(blob);
+                }
+            } catch (IOException e) {
+                log.warn("回收存储文件失败：{}", blob, e);
+            }
+        }
+    }
+
+    /**
+     * 在目标位置创建硬链接，已存在则原子替换；不支持硬链接时退化为复制
+     */
+    private static void link(Path source, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path tmp = target.resolveSibling("." + target.getFileName() + "." + IdUtil.fastSimpleUUID());
+        try {
+            Files.createLink(tmp, source);
+        } catch (NoSuchFileException e) {
+            throw e;
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            // 跨文件系统等无法创建硬链接的情况
+            Files.copy(source, tmp);
+        }
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void moveIntoStore(Path tmp, Path blob) throws IOException {
+        Files.createDirectories(blob.getParent());
+        try {
+            Files.move(tmp, blob, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static int linkCount(Path file) throws IOException {
+        return (Integer) Files.getAttribute(file, "unix:nlink");
+    }
+
+    private static List<Path> listFiles(Path dir) {
+        if (!Files.isDirectory(dir)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> stream = Files.walk(dir)) {
+            return stream.filter(Files::isRegularFile).toList();
+        } catch (IOException e) {
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "读取目录失败");
+        }
+    }
+
+    private static Path blobPath(String hash) {
+        return BLOB_ROOT.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+}
@@ -2,6 +2,7 @@ package com.company.core.saver;
 
 import com.company.ai.model.HtmlCodeResult;
 import com.company.ai.model.MultiFileCodeResult;
+import com.company.ai.model.ProjectCodeResult;
 import com.company.ai.model.enums.CodeGenTypeEnum;
 import com.company.exception.BusinessException;
 import com.company.exception.ErrorCode;
@@ -17,11 +18,24 @@ public class CodeFileSaverExecutor {
 
     private static final MutilFileSaverTemplate mutilFileSaverTemplate = new MutilFileSaverTemplate();
 
+    private static final ProjectFileSaverTemplate projectFileSaverTemplate = new ProjectFileSaverTemplate();
+
     //执行代码保存方法
     public static File executeSaver(CodeGenTypeEnum codeType, Object codeResult, Long appId) {
         return switch (codeType){
             case HTML -> htmlCodeFileSaverTemplate.saveCode((HtmlCodeResult) codeResult, appId);
             case MULTI_FILE -> mutilFileSaverTemplate.saveCode((MultiFileCodeResult) codeResult, appId);
+            case PROJECT -> projectFileSaverTemplate.saveCode((ProjectCodeResult) codeResult, appId);
+            default -> throw new BusinessException(ErrorCode.SYSTEM_ERROR, "不支持的生成类型" + codeType.getValue());
+        };
+    }
+
+    //开启流式保存会话
+    public static CodeFileStreamSession openStream(CodeGenTypeEnum codeType, Long appId) {
+        return switch (codeType){
+            case HTML -> htmlCodeFileSaverTemplate.openStream(appId);
+            case MULTI_FILE -> mutilFileSaverTemplate.openStream(appId);
+            case PROJECT -> projectFileSaverTemplate.openStream(appId);
             default -> throw new BusinessException(ErrorCode.SYSTEM_ERROR, "不支持的生成类型" + codeType.getValue());
         };
     }
@@ -1,14 +1,16 @@
 package com.company.core.saver;
 
-import cn.hutool.core.io.FileUtil;
 import cn.hutool.core.util.StrUtil;
 import com.company.ai.model.enums.CodeGenTypeEnum;
 import com.company.constant.AppConstant;
+import com.company.core.storage.CodeStorage;
+import com.company.core.storage.CodeStorageFactory;
 import com.company.exception.BusinessException;
 import com.company.exception.ErrorCode;
 
 import java.io.File;
-import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Map;
 
 
 public abstract class CodeFileSaverTemplate<T> {
@@ -19,12 +21,35 @@ public abstract class CodeFileSaverTemplate<T> {
     public final File saveCode(T codeResult,Long appId) {
         //校验输入
         validateInput(codeResult);
-        //构建唯一目录路径
+        //构建唯一目录路径（新的暂存目录）
+        CodeStorage codeStorage = CodeStorageFactory.getStorage();
         String uniquePath = buildUniqueDirPath(appId);
         //保存文件
-        saveFiles(uniquePath, codeResult);
-        //返回保存的目录
-        return new File(uniquePath);
+        try {
+            saveFiles(uniquePath, codeResult);
+            //生成预压缩副本
+            CodePrecompressor.precompress(Paths.get(uniquePath));
+            //写入时不逐个 fsync，发布前连同预压缩副本整个版本同步一次
+            if (CodeStorageFactory.isFsync()) {
+                CodeFileWriter.syncTree(Paths.get(uniquePath));
+            }
+        } catch (RuntimeException e) {
+            codeStorage.discard(Paths.get(uniquePath));
+            throw e;
+        }
+        //发布版本并返回访问目录
+        return codeStorage.publish(buildDirName(appId), Paths.get(uniquePath));
+    }
+
+    /**
+     * 开启流式保存：代码块内容到达时直接追加写入新的暂存目录，生成完成后发布该版本
+     *
+     * @param appId 应用ID
+     * @return 保存会话
+     */
+    public final CodeFileStreamSession openStream(Long appId) {
+        String dirName = buildDirName(appId);
+        return new CodeFileStreamSession(this, CodeStorageFactory.getStorage(), dirName);
     }
 
 
@@ -34,18 +59,14 @@ public abstract class CodeFileSaverTemplate<T> {
         }
     }
 
-    //构建唯一目录路径
+    //构建唯一目录路径：每次保存都是一个新的暂存目录，发布前对预览不可见
     protected final String buildUniqueDirPath(Long appId) {
-        //File.sparator== \(斜杆)
-        String codeType = getCodeType().getValue();
-        String uniquePath = StrUtil.format("{} {}", codeType, appId);
-        String baseDirPath = FILE_SAVE_ROOT_PATH + File.separator + uniquePath;
-        File baseDir = new File(baseDirPath);
-        if (!baseDir.exists()) {
-            //创建目录 mkdirs递归创建「多级嵌套文件夹」，哪怕父文件夹不存在，也会自动创建所有层级。
-            baseDir.mkdirs();
-        }
-        return baseDirPath;
+        return CodeStorageFactory.getStorage().createStagingDir(buildDirName(appId)).toString();
+    }
+
+    //目录名：{生成类型}_{应用ID}，与部署、预览使用的路径一致
+    protected final String buildDirName(Long appId) {
+        return StrUtil.format("{}_{}", getCodeType().getValue(), appId);
     }
 
     /**
@@ -55,15 +76,63 @@ public abstract class CodeFileSaverTemplate<T> {
      * @param content 文件内容
      */
     protected final void writeToFile(String dirPath,String fileName, String content) {
-        if(StrUtil.isNotBlank(content)){
-            String filePath = dirPath + File.separator + fileName;
-            FileUtil.writeString(content,filePath, StandardCharsets.UTF_8);
-        }
+        writeFiles(dirPath, Map.of(fileName, content == null ? "" : content));
+    }
+
+    /**
+     * 并发写入多个文件（空白内容的文件不写入），全部完成后返回
+     * 暂存目录中是普通文件，发布时由存储统一处理；这里不 fsync，保存完成后整个版本统一同步
+     *
+     * @param dirPath 目录路径
+     * @param files   相对路径 -> 文件内容
+     */
+    protected final void writeFiles(String dirPath, Map<String, String> files) {
+        CodeFileWriter.writeAll(Paths.get(dirPath), files, false);
     }
 
     protected abstract void saveFiles(String uniquePath, T codeResult);
 
     protected abstract CodeGenTypeEnum getCodeType();
 
+    /**
+     * 流式保存时代码块语言对应的文件名
+     *
+     * @param language 代码块语言
+     * @return 文件名，不需要保存时返回 null
+     */
+    protected abstract String resolveFileName(String language);
+
+    /**
+     * 流式保存时代码块对应的文件名，默认只按语言决定，忽略代码块标注的路径
+     *
+     * @param language 代码块语言
+     * @param path     代码块标注的文件路径（未校验），没有时为 null
+     * @return 相对暂存目录的文件路径，不需要保存时返回 null
+     */
+    protected String resolveFileName(String language, String path) {
+        return resolveFileName(language);
+    }
+
+    /**
+     * 流式保存时是否去掉文件内容（包括作为文件的代码块之外文本）首尾的空白，与完整输出解析的规则保持一致
+     */
+    protected boolean isTrimContent() {
+        return false;
+    }
+
+    /**
+     * 一次保存的文件数上限
+     */
+    protected int getMaxFiles() {
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * 流式保存结束时补全默认文件、校验内容
+     *
+     * @param session 保存会话
+     */
+    protected abstract void completeStream(CodeFileStreamSession session);
+
 }
 
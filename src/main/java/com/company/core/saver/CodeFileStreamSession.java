@@ -0,0 +1,383 @@
+package com.company.core.saver;
+
+import com.company.core.parser.CodeBlockListener;
+import com.company.core.storage.CodeStorage;
+import com.company.core.storage.CodeStorageFactory;
+import com.company.core.storage.PreviewDrafts;
+import com.company.exception.BusinessException;
+import com.company.exception.ErrorCode;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * 流式保存会话
+ * 一次生成对应一个会话：代码块内容到达时直接追加写入新的暂存目录，每写完一个文件就登记为预览草稿，
+ * 生成过程中预览即可看到；生成完成后由模板补全默认文件，再由存储发布该版本；中途失败或取消则删除暂存目录
+ * 非线程安全，事件由同一个流按顺序回调
+ */
+@Slf4j
+public class CodeFileStreamSession implements CodeBlockListener {
+
+    /**
+     * 代码块之外的文本暂存文件，完成时删除或转为正式文件
+     */
+    private static final String TEXT_SPOOL_FILE = ".text";
+
+    private final CodeFileSaverTemplate<?> template;
+
+    private final CodeStorage codeStorage;
+
+    private final Path stagingDir;
+
+    /**
+     * 发布的目录名，如 html_1
+     */
+    private final String dirName;
+
+    /**
+     * 已经开始写入的文件（同名文件只写第一个代码块）
+     */
+    private final Set<String> openedFiles = new HashSet<>();
+
+    /**
+     * 写入过非空白内容的文件
+     */
+    private final Set<String> contentFiles = new HashSet<>();
+
+    private Appender current;
+
+    private String currentFile;
+
+    private Appender text;
+
+    /**
+     * 代码块之外的文本是否有非空白内容
+     */
+    private boolean textHasContent;
+
+    /**
+     * 写入过程中出现的异常，提交时抛出
+     */
+    private IOException failure;
+
+    private boolean closed;
+
+    /**
+     * 预览内容变化（写完一个文件、放弃保存）时回调，参数为目录名
+     */
+    private Consumer<String> previewListener;
+
+    CodeFileStreamSession(CodeFileSaverTemplate<?> template, CodeStorage codeStorage, String dirName) {
+        this.template = template;
+        this.codeStorage = codeStorage;
+        this.stagingDir = codeStorage.createStagingDir(dirName);
+        this.dirName = dirName;
+    }
+
+    @Override
+    public void onBlockStart(String language) {
+        onBlockStart(language, null);
+    }
+
+    @Override
+    public void onBlockStart(String language, String path) {
+        String fileName = template.resolveFileName(language, path);
+        if (fileName == null || openedFiles.contains(fileName)) {
+            return;
+        }
+        if (openedFiles.size() >= template.getMaxFiles()) {
+            log.warn("文件数超过上限 {}，忽略：{}", template.getMaxFiles(), fileName);
+            return;
+        }
+        openedFiles.add(fileName);
+        try {
+            current = openAppend(fileName);
+            currentFile = fileName;
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    @Override
+    public void onBlockContent(String language, String content) {
+        if (current == null) {
+            return;
+        }
+        try {
+            current.write(content);
+            if (!content.isBlank()) {
+                contentFiles.add(currentFile);
+            }
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    @Override
+    public void onBlockEnd(String language) {
+        String fileName = currentFile;
+        closeCurrent();
+        if (fileName != null && failure == null && contentFiles.contains(fileName)) {
+            PreviewDrafts.addFile(dirName, stagingDir, fileName);
+            notifyPreview();
+        }
+    }
+
+    @Override
+    public void onText(String text) {
+        if (failure != null) {
+            return;
+        }
+        try {
+            if (this.text == null) {
+                this.text = openAppend(TEXT_SPOOL_FILE);
+            }
+            this.text.write(text);
+            textHasContent |= !text.isBlank();
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * 设置预览变化的回调，用于失效预览缓存
+     *
+     * @param previewListener 回调，参数为目录名
+     */
+    public void setPreviewListener(Consumer<String> previewListener) {
+        this.previewListener = previewListener;
+    }
+
+    /**
+     * 文件是否写入过非空白内容
+     *
+     * @param fileName 文件名
+     */
+    public boolean hasContent(String fileName) {
+        return contentFiles.contains(fileName);
+    }
+
+    /**
+     * 直接写入（覆盖）一个完整文件，用于补全默认文件
+     *
+     * @param fileName 文件名
+     * @param content  文件内容
+     */
+    public void writeFile(String fileName, String content) {
+        try {
+            // 持久化在提交时统一进行
+            CodeFileWriter.write(resolve(fileName), ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8)), false);
+            openedFiles.add(fileName);
+            if (!content.isBlank()) {
+                contentFiles.add(fileName);
+            }
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * 将代码块之外的文本作为某个文件（如没有代码块时将全部内容作为 HTML）
+     *
+     * @param fileName 文件名
+     */
+    public void useTextAs(String fileName) {
+        closeText();
+        Path spool = stagingDir.resolve(TEXT_SPOOL_FILE);
+        try {
+            if (textHasContent) {
+                Files.move(spool, stagingDir.resolve(fileName), StandardCopyOption.REPLACE_EXISTING);
+                openedFiles.add(fileName);
+                contentFiles.add(fileName);
+            }
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * 生成完成：补全文件并发布版本
+     *
+     * @return 发布后的访问目录
+     */
+    public File commit() {
+        ensureOpen();
+        closeCurrent();
+        try {
+            template.completeStream(this);
+            closeText();
+            closed = true;
+            if (failure != null) {
+                throw failure;
+            }
+            Files.deleteIfExists(stagingDir.resolve(TEXT_SPOOL_FILE));
+            CodePrecompressor.precompress(stagingDir);
+            // 写入过程中不逐个 fsync，发布前连同预压缩副本整个版本同步一次
+            if (CodeStorageFactory.isFsync()) {
+                CodeFileWriter.syncTree(stagingDir);
+            }
+            // 发布时暂存目录可能被移动或删除，先移除草稿（期间预览短暂回到当前版本），发布后由调用方失效预览缓存
+            PreviewDrafts.remove(dirName, stagingDir);
+            return codeStorage.publish(dirName, stagingDir);
+        } catch (IOException e) {
+            discard();
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "代码保存失败：" + e.getMessage());
+        } catch (RuntimeException e) {
+            discard();
+            throw e;
+        }
+    }
+
+    /**
+     * 放弃本次保存，删除未发布的暂存目录
+     */
+    public void abort() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        closeCurrent();
+        closeText();
+        discard();
+    }
+
+    /**
+     * 删除暂存目录，预览回到当前版本
+     */
+    private void discard() {
+        PreviewDrafts.remove(dirName, stagingDir);
+        codeStorage.discard(stagingDir);
+        notifyPreview();
+    }
+
+    private void notifyPreview() {
+        if (previewListener != null) {
+            previewListener.accept(dirName);
+        }
+    }
+
+    private Appender openAppend(String fileName) throws IOException {
+        return new Appender(FileChannel.open(resolve(fileName),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND), template.isTrimContent());
+    }
+
+    /**
+     * 暂存目录中的文件，按需创建上级目录；路径必须在暂存目录之内
+     */
+    private Path resolve(String fileName) throws IOException {
+        Path root = stagingDir.normalize();
+        Path file = root.resolve(fileName).normalize();
+        if (!file.startsWith(root) || file.equals(root)) {
+            throw new IOException("非法的文件路径：" + fileName);
+        }
+        Files.createDirectories(file.getParent());
+        return file;
+    }
+
+    private static void append(FileChannel channel, String content) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private void closeCurrent() {
+        Appender appender = current;
+        current = null;
+        currentFile = null;
+        if (appender != null) {
+            closeQuietly(appender);
+        }
+    }
+
+    private void closeText() {
+        Appender appender = text;
+        text = null;
+        if (appender != null) {
+            closeQuietly(appender);
+        }
+    }
+
+    private void closeQuietly(Appender appender) {
+        try {
+            appender.channel.close();
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    private void fail(IOException e) {
+        if (failure == null) {
+            log.error("流式写入文件失败，目录：{}", stagingDir, e);
+            failure = e;
+        }
+        closeCurrent();
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "保存会话已结束");
+        }
+    }
+
+    /**
+     * 追加写入一个文件；需要去掉首尾空白时，开头的空白直接丢弃，末尾的空白先暂存，后面还有内容时再写入
+     * 空白的判断与 String.trim() 相同
+     */
+    private static class Appender {
+
+        private final FileChannel channel;
+
+        private final boolean trim;
+
+        private boolean started;
+
+        private final StringBuilder pendingBlank = new StringBuilder();
+
+        private Appender(FileChannel channel, boolean trim) {
+            this.channel = channel;
+            this.trim = trim;
+        }
+
+        private void write(String content) throws IOException {
+            if (!trim) {
+                append(channel, content);
+                return;
+            }
+            int end = content.length();
+            while (end > 0 && content.charAt(end - 1) <= ' ') {
+                end--;
+            }
+            if (end == 0) {
+                if (started) {
+                    pendingBlank.append(content);
+                }
+                return;
+            }
+            int begin = 0;
+            if (!started) {
+                while (content.charAt(begin) <= ' ') {
+                    begin++;
+                }
+                started = true;
+            } else if (!pendingBlank.isEmpty()) {
+                append(channel, pendingBlank.toString());
+                pendingBlank.setLength(0);
+            }
+            append(channel, content.substring(begin, end));
+            pendingBlank.append(content, end, content.length());
+        }
+    }
+}
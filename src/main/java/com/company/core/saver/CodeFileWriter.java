@@ -0,0 +1,180 @@
+package com.company.core.saver;
+
+import com.company.constant.AppConstant;
+import com.company.exception.BusinessException;
+import com.company.exception.ErrorCode;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * 代码文件批量写入
+ * 内容在调用线程上先编码为 UTF-8，再交给固定大小的 I/O 线程池并发用 FileChannel 写入；
+ * 需要持久化时每个文件写完后 force 数据（并发进行，由文件系统合并日志提交），
+ * 全部完成后每个目录只 fsync 一次，而不是每个文件都同步一次所在目录
+ */
+@Slf4j
+public class CodeFileWriter {
+
+    private static final AtomicInteger THREAD_INDEX = new AtomicInteger();
+
+    /**
+     * 写文件的线程池，限制同时进行的磁盘写入数
+     */
+    private static final ExecutorService IO_EXECUTOR = Executors.newFixedThreadPool(AppConstant.CODE_SAVE_IO_THREADS, runnable -> {
+        Thread thread = new Thread(runnable, "code-file-io-" + THREAD_INDEX.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 写入一组文件，全部完成后返回，任一失败时抛出异常（已写入的文件由调用方随暂存目录一起删除）
+     *
+     * @param dir   目录
+     * @param files 相对路径 -> 文件内容，空白内容的文件不写入
+     * @param fsync 是否持久化（文件数据和所在目录）
+     */
+    public static void writeAll(Path dir, Map<String, String> files, boolean fsync) {
+        // 先编码、建目录，I/O 线程只做写入
+        Map<Path, ByteBuffer> buffers = new LinkedHashMap<>();
+        Set<Path> dirs = new LinkedHashSet<>();
+        dirs.add(dir);
+        try {
+            for (Map.Entry<String, String> entry : files.entrySet()) {
+                String content = entry.getValue();
+                if (content == null || content.isBlank()) {
+                    continue;
+                }
+                Path file = dir.resolve(entry.getKey());
+                Path parent = file.getParent();
+                if (!dirs.contains(parent)) {
+                    Files.createDirectories(parent);
+                    // 新建的每一级目录都要同步
+                    while (parent.startsWith(dir) && dirs.add(parent)) {
+                        parent = parent.getParent();
+                    }
+                }
+                buffers.put(file, ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8)));
+            }
+        } catch (IOException e) {
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "创建目录失败：" + e.getMessage());
+        }
+        if (buffers.size() == 1) {
+            buffers.forEach((file, buffer) -> writeUnchecked(file, buffer, fsync));
+        } else {
+            List<Future<?>> futures = new ArrayList<>(buffers.size());
+            buffers.forEach((file, buffer) -> futures.add(IO_EXECUTOR.submit(() -> writeUnchecked(file, buffer, fsync))));
+            awaitAll(futures);
+        }
+        if (fsync) {
+            dirs.forEach(CodeFileWriter::syncDirectory);
+        }
+    }
+
+    /**
+     * 持久化整个目录：并发 force 所有文件的数据，再对每个目录 fsync 一次，用于流式写入完成后
+     *
+     * @param root 根目录
+     */
+    public static void syncTree(Path root) {
+        List<Path> regularFiles = new ArrayList<>();
+        List<Path> directories = new ArrayList<>();
+        try (Stream<Path> stream = Files.walk(root)) {
+            stream.forEach(path -> (Files.isDirectory(path) ? directories : regularFiles).add(path));
+        } catch (IOException e) {
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "读取目录失败：" + e.getMessage());
+        }
+        List<Future<?>> futures = new ArrayList<>(regularFiles.size());
+        regularFiles.forEach(file -> futures.add(IO_EXECUTOR.submit(() -> syncFile(file))));
+        awaitAll(futures);
+        directories.forEach(CodeFileWriter::syncDirectory);
+    }
+
+    /**
+     * 写入单个文件
+     *
+     * @param file   文件
+     * @param buffer UTF-8 编码后的内容
+     * @param fsync  是否把数据刷到磁盘
+     */
+    public static void write(Path file, ByteBuffer buffer, boolean fsync) throws IOException {
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (fsync) {
+                channel.force(false);
+            }
+        }
+    }
+
+    private static void writeUnchecked(Path file, ByteBuffer buffer, boolean fsync) {
+        try {
+            write(file, buffer, fsync);
+        } catch (IOException e) {
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "写入文件失败：" + file.getFileName());
+        }
+    }
+
+    private static void syncFile(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.force(false);
+        } catch (IOException e) {
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "同步文件失败：" + file.getFileName());
+        }
+    }
+
+    private static void awaitAll(List<Future<?>> futures) {
+        RuntimeException failure = null;
+        // 等待全部结束再返回，避免调用方删除目录时还有写入在进行
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof RuntimeException runtimeException ? runtimeException
+                            : new BusinessException(ErrorCode.SYSTEM_ERROR, "写入文件失败：" + e.getCause().getMessage());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(remaining -> remaining.cancel(false));
+                throw new BusinessException(ErrorCode.SYSTEM_ERROR, "写入文件被中断");
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * fsync 目录，使其中新建、重命名的文件项持久化；不支持打开目录的平台（如 Windows）跳过
+     *
+     * @param dir 目录
+     */
+    public static void syncDirectory(Path dir) {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            log.debug("同步目录失败：{}", dir, e);
+        }
+    }
+}
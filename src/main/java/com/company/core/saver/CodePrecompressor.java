@@ -0,0 +1,96 @@
+package com.company.core.saver;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 静态资源预压缩
+ * 版本发布前为文本类文件生成 .gz 副本，压缩只在生成时做一次，预览和部署访问时直接返回压缩文件
+ */
+@Slf4j
+public class CodePrecompressor {
+
+    /**
+     * gzip 副本后缀
+     */
+    public static final String GZIP_SUFFIX = ".gz";
+
+    /**
+     * 需要预压缩的文件类型
+     */
+    private static final Set<String> COMPRESSIBLE_EXTENSIONS = Set.of("html", "htm", "css", "js", "mjs", "json", "svg", "txt", "xml", "map");
+
+    /**
+     * 小于该大小的文件压缩收益太小，不生成副本
+     */
+    private static final int MIN_COMPRESS_BYTES = 256;
+
+    /**
+     * 为目录下的文本类文件生成 gzip 副本（已有副本或压缩后没有变小的不生成）
+     *
+     * @param dir 版本目录
+     */
+    public static void precompress(Path dir) {
+        for (Path file : listCompressibleFiles(dir)) {
+            Path gzipFile = file.resolveSibling(file.getFileName() + GZIP_SUFFIX);
+            if (Files.exists(gzipFile)) {
+                continue;
+            }
+            try {
+                byte[] bytes = Files.readAllBytes(file);
+                if (bytes.length < MIN_COMPRESS_BYTES) {
+                    continue;
+                }
+                byte[] gzipBytes = gzip(bytes);
+                if (gzipBytes.length < bytes.length) {
+                    Files.write(gzipFile, gzipBytes);
+                }
+            } catch (IOException | RuntimeException e) {
+                // 预压缩失败不影响发布，访问时返回原文件
+                log.warn("预压缩文件失败：{}", file, e);
+            }
+        }
+    }
+
+    /**
+     * 文件类型是否需要预压缩
+     *
+     * @param fileName 文件名
+     */
+    public static boolean isCompressible(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot >= 0 && COMPRESSIBLE_EXTENSIONS.contains(fileName.substring(dot + 1).toLowerCase());
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 3 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    private static List<Path> listCompressibleFiles(Path dir) {
+        try (Stream<Path> stream = Files.walk(dir)) {
+            return stream.filter(Files::isRegularFile)
+                    .filter(file -> isCompressible(file.getFileName().toString()))
+                    .toList();
+        } catch (IOException e) {
+            log.warn("读取目录失败：{}", dir, e);
+            return List.of();
+        }
+    }
+}
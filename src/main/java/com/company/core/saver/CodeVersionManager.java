@@ -0,0 +1,270 @@
+package com.company.core.saver;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.IdUtil;
+import com.company.constant.AppConstant;
+import com.company.core.storage.CodeStorageFactory;
+import com.company.exception.BusinessException;
+import com.company.exception.ErrorCode;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * 生成代码版本管理
+ * 每次生成写入 .versions/{目录名}/{版本号} 下的新目录，写完后通过原子替换符号链接 {目录名} 发布，
+ * 预览读取时始终看到某个完整版本；保留最近若干个版本用于回滚
+ */
+@Slf4j
+public class CodeVersionManager {
+
+    /**
+     * 生成目录根路径
+     */
+    private static final Path OUTPUT_ROOT = Paths.get(AppConstant.CODE_OUTPUT_ROOT_DIR);
+
+    /**
+     * 版本目录名（相对生成目录根路径）
+     */
+    private static final String VERSION_DIR_NAME = ".versions";
+
+    /**
+     * 部署目录名（相对部署根路径）
+     */
+    private static final String RELEASE_DIR_NAME = ".releases";
+
+    /**
+     * 旧版本（发布目录是普通目录而非符号链接时）迁移后的版本号
+     */
+    private static final String LEGACY_VERSION = "0";
+
+    /**
+     * 创建一个新的版本目录，发布前对预览不可见
+     *
+     * @param dirName 目录名，如 html_1
+     * @return 版本目录
+     */
+    public static Path createVersionDir(String dirName) {
+        Path versionDir = versionRoot(dirName).resolve(IdUtil.getSnowflakeNextIdStr());
+        try {
+            Files.createDirectories(versionDir);
+        } catch (IOException e) {
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "创建版本目录失败");
+        }
+        return versionDir;
+    }
+
+    /**
+     * 发布版本：原子替换符号链接，并清理多余的旧版本
+     *
+     * @param dirName    目录名
+     * @param versionDir 版本目录
+     * @return 发布后的访问目录
+     */
+    public static Path publish(String dirName, Path versionDir) {
+        Path livePath = OUTPUT_ROOT.resolve(dirName);
+        try {
+            migrateLegacyDir(livePath, versionRoot(dirName).resolve(LEGACY_VERSION));
+            swapLink(livePath, versionDir);
+        } catch (IOException | UnsupportedOperationException e) {
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "发布版本失败：" + e.getMessage());
+        }
+        pruneVersions(dirName);
+        return livePath;
+    }
+
+    /**
+     * 回滚到当前版本的上一个版本
+     *
+     * @param dirName 目录名
+     * @return 回滚后的版本号
+     */
+    public static String rollback(String dirName) {
+        Path current = resolveCurrent(dirName);
+        String currentVersion = current == null ? null : current.getFileName().toString();
+        String previous = listVersions(dirName).stream()
+                .filter(version -> currentVersion == null || parseVersion(version) < parseVersion(currentVersion))
+                .findFirst()
+                .orElseThrow(() -> new BusinessException(ErrorCode.OPERATION_ERROR, "没有可回滚的版本"));
+        publish(dirName, versionRoot(dirName).resolve(previous));
+        return previous;
+    }
+
+    /**
+     * 当前发布的版本目录
+     *
+     * @param dirName 目录名
+     * @return 版本目录真实路径，未发布返回 null
+     */
+    public static Path resolveCurrent(String dirName) {
+        Path livePath = OUTPUT_ROOT.resolve(dirName);
+        if (!Files.exists(livePath)) {
+            return null;
+        }
+        try {
+            return livePath.toRealPath();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 版本号列表，新版本在前
+     *
+     * @param dirName 目录名
+     */
+    public static List<String> listVersions(String dirName) {
+        Path root = versionRoot(dirName);
+        if (!Files.isDirectory(root)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> stream = Files.list(root)) {
+            return stream.filter(Files::isDirectory)
+                    .map(path -> path.getFileName().toString())
+                    .filter(CodeVersionManager::isVersion)
+                    .sorted(Comparator.comparingLong(CodeVersionManager::parseVersion).reversed())
+                    .toList();
+        } catch (IOException e) {
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "读取版本列表失败");
+        }
+    }
+
+    /**
+     * 丢弃未发布的版本目录
+     *
+     * @param versionDir 版本目录
+     */
+    public static void discard(Path versionDir) {
+        CodeBlobStore.deleteTree(versionDir);
+    }
+
+    /**
+     * 将当前版本以硬链接方式物化到新的部署目录（用于部署），完成后切换部署链接
+     *
+     * @param dirName   目录名
+     * @param targetDir 部署路径
+     */
+    public static void materialize(String dirName, Path targetDir) {
+        Path current = resolveCurrent(dirName);
+        if (current == null || !Files.isDirectory(current)) {
+            throw new BusinessException(ErrorCode.OPERATION_ERROR, "代码目录不存在");
+        }
+        Path releaseDir = createReleaseDir(targetDir);
+        try {
+            CodeBlobStore.linkTree(current, releaseDir);
+            // 旧版本目录可能没有预压缩副本，部署时补齐
+            CodePrecompressor.precompress(releaseDir);
+        } catch (RuntimeException e) {
+            CodeBlobStore.deleteTree(releaseDir);
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "代码部署失败");
+        }
+        publishRelease(targetDir, releaseDir);
+    }
+
+    /**
+     * 创建一个新的部署目录：部署路径同级的 .releases/{部署名}/{版本号}，切换前对访问不可见
+     *
+     * @param targetDir 部署路径
+     * @return 部署目录
+     */
+    public static Path createReleaseDir(Path targetDir) {
+        Path releaseDir = releaseRoot(targetDir).resolve(IdUtil.getSnowflakeNextIdStr());
+        try {
+            Files.createDirectories(releaseDir);
+        } catch (IOException e) {
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "创建部署目录失败");
+        }
+        return releaseDir;
+    }
+
+    /**
+     * 切换部署：原子替换部署路径上的符号链接，并删除其他部署目录
+     * 与发布版本相同，访问部署路径时要么看到旧的部署要么看到新的部署，不会出现路径不存在的间隙
+     *
+     * @param targetDir  部署路径
+     * @param releaseDir 已写好的部署目录
+     */
+    public static void publishRelease(Path targetDir, Path releaseDir) {
+        try {
+            migrateLegacyDir(targetDir, releaseRoot(targetDir).resolve(LEGACY_VERSION));
+            swapLink(targetDir, releaseDir);
+        } catch (IOException | UnsupportedOperationException e) {
+            CodeBlobStore.deleteTree(releaseDir);
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "代码部署失败：" + e.getMessage());
+        }
+        // 已打开的文件在删除后仍可读完
+        try (Stream<Path> stream = Files.list(releaseRoot(targetDir))) {
+            stream.filter(path -> !path.equals(releaseDir)).toList().forEach(CodeBlobStore::deleteTree);
+        } catch (IOException e) {
+            log.warn("清理旧部署目录失败：{}", targetDir, e);
+        }
+    }
+
+    /**
+     * 只保留最近的若干个版本，当前发布的版本始终保留
+     */
+    private static void pruneVersions(String dirName) {
+        Path current = resolveCurrent(dirName);
+        List<String> versions = listVersions(dirName);
+        for (int i = AppConstant.CODE_VERSION_KEEP_COUNT; i < versions.size(); i++) {
+            Path versionDir = versionRoot(dirName).resolve(versions.get(i));
+            if (current != null && current.getFileName().toString().equals(versions.get(i))) {
+                continue;
+            }
+            log.info("清理旧版本：{}", versionDir);
+            CodeBlobStore.deleteTree(versionDir);
+        }
+    }
+
+    /**
+     * 原子替换符号链接：先在同一目录创建临时链接，再 rename 覆盖
+     */
+    private static void swapLink(Path livePath, Path target) throws IOException {
+        Path parent = livePath.getParent();
+        Path tmpLink = parent.resolve("." + livePath.getFileName() + "." + target.getFileName() + ".tmp");
+        Files.deleteIfExists(tmpLink);
+        Files.createSymbolicLink(tmpLink, parent.relativize(target));
+        // rename 覆盖已有链接是原子的，读请求要么看到旧版本要么看到新版本
+        Files.move(tmpLink, livePath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        // 链接替换本身也要落盘，否则掉电后可能回到旧版本
+        if (CodeStorageFactory.isFsync()) {
+            CodeFileWriter.syncDirectory(parent);
+        }
+    }
+
+    /**
+     * 路径还是普通目录时（引入版本管理、部署链接之前生成的），先迁移为一个版本
+     */
+    private static void migrateLegacyDir(Path livePath, Path legacyDir) throws IOException {
+        if (Files.isDirectory(livePath, LinkOption.NOFOLLOW_LINKS)) {
+            FileUtil.del(legacyDir.toFile());
+            Files.createDirectories(legacyDir.getParent());
+            Files.move(livePath, legacyDir, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    private static Path versionRoot(String dirName) {
+        return OUTPUT_ROOT.resolve(VERSION_DIR_NAME).resolve(dirName);
+    }
+
+    private static Path releaseRoot(Path targetDir) {
+        return targetDir.resolveSibling(RELEASE_DIR_NAME).resolve(targetDir.getFileName().toString());
+    }
+
+    private static boolean isVersion(String name) {
+        return !name.isEmpty() && name.chars().allMatch(Character::isDigit);
+    }
+
+    private static long parseVersion(String version) {
+        return Long.parseLong(version);
+    }
+}
@@ -19,6 +19,28 @@ public class HtmlCodeFileSaverTemplate extends CodeFileSaverTemplate<HtmlCodeRes
         return CodeGenTypeEnum.HTML;
     }
 
+    @Override
+    protected String resolveFileName(String language) {
+        return "html".equals(language) ? "index.html" : null;
+    }
+
+    @Override
+    protected boolean isTrimContent() {
+        // 与 HtmlCodeParser 一致：代码块和兜底的整段文本都去掉首尾空白
+        return true;
+    }
+
+    @Override
+    protected void completeStream(CodeFileStreamSession session) {
+        if (!session.hasContent("index.html")) {
+            // 没有 html 代码块时，将代码块之外的内容作为HTML
+            session.useTextAs("index.html");
+        }
+        if (!session.hasContent("index.html")) {
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, " Html代码内容为空");
+        }
+    }
+
     protected void validateInput(HtmlCodeResult codeResult) {
         super.validateInput(codeResult);
         if (StrUtil.isBlank(codeResult.getHtmlCode())) {
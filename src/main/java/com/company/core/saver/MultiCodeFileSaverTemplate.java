@@ -12,4 +12,14 @@ public class MultiCodeFileSaverTemplate extends CodeFileSaverTemplate{
     protected CodeGenTypeEnum getCodeType() {
         return null;
     }
+
+    @Override
+    protected String resolveFileName(String language) {
+        return null;
+    }
+
+    @Override
+    protected void completeStream(CodeFileStreamSession session) {
+
+    }
 }
@@ -6,23 +6,36 @@ import com.company.ai.model.enums.CodeGenTypeEnum;
 import com.company.exception.BusinessException;
 import com.company.exception.ErrorCode;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 public class MutilFileSaverTemplate extends CodeFileSaverTemplate<MultiFileCodeResult>{
+
+    //css为空时的默认文件内容
+    private static final String DEFAULT_CSS_CODE = "/* 样式文件 */\n";
+
+    //js为空时的默认文件内容
+    private static final String DEFAULT_JS_CODE = "// JavaScript 代码文件\n";
+
     @Override
     protected void saveFiles(String uniquePath, MultiFileCodeResult codeResult) {
-        //保存html文件
-        writeToFile(uniquePath, "index.html", codeResult.getHtmlCode());
-        //保存css文件（如果为空则创建默认文件）
+        Map<String, String> files = new LinkedHashMap<>();
+        //html文件
+        files.put("index.html", codeResult.getHtmlCode());
+        //css文件（如果为空则创建默认文件）
         String cssCode = codeResult.getCssCode();
         if (StrUtil.isBlank(cssCode)) {
-            cssCode = "/* 样式文件 */\n";
+            cssCode = DEFAULT_CSS_CODE;
         }
-        writeToFile(uniquePath, "style.css", cssCode);
-        //保存js文件（如果为空则创建默认文件）
+        files.put("style.css", cssCode);
+        //js文件（如果为空则创建默认文件）
         String jsCode = codeResult.getJsCode();
         if (StrUtil.isBlank(jsCode)) {
-            jsCode = "// JavaScript 代码文件\n";
+            jsCode = DEFAULT_JS_CODE;
         }
-        writeToFile(uniquePath, "script.js", jsCode);
+        files.put("script.js", jsCode);
+        //三个文件并发写入
+        writeFiles(uniquePath, files);
     }
 
     @Override
@@ -30,6 +43,30 @@ public class MutilFileSaverTemplate extends CodeFileSaverTemplate<MultiFileCodeR
         return CodeGenTypeEnum.MULTI_FILE;
     }
 
+    @Override
+    protected String resolveFileName(String language) {
+        return switch (language) {
+            case "html" -> "index.html";
+            case "css" -> "style.css";
+            case "js" -> "script.js";
+            default -> null;
+        };
+    }
+
+    @Override
+    protected void completeStream(CodeFileStreamSession session) {
+        if (!session.hasContent("index.html")) {
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "HTML代码内容为空");
+        }
+        //css、js为空则创建默认文件
+        if (!session.hasContent("style.css")) {
+            session.writeFile("style.css", DEFAULT_CSS_CODE);
+        }
+        if (!session.hasContent("script.js")) {
+            session.writeFile("script.js", DEFAULT_JS_CODE);
+        }
+    }
+
     protected void validateInput(MultiFileCodeResult codeResult) {
         super.validateInput(codeResult);
         if (StrUtil.isBlank(codeResult.getHtmlCode())) {  // 为空时才抛异常
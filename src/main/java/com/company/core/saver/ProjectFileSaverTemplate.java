@@ -0,0 +1,84 @@
+package com.company.core.saver;
+
+import com.company.ai.model.ProjectCodeResult;
+import com.company.ai.model.ProjectFile;
+import com.company.ai.model.enums.CodeGenTypeEnum;
+import com.company.constant.AppConstant;
+import com.company.core.parser.ProjectFilePath;
+import com.company.exception.BusinessException;
+import com.company.exception.ErrorCode;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 项目模式保存模板
+ * 按代码块标注的路径保存任意数量的文件，路径统一经过 ProjectFilePath 校验，不合法的路径和超出上限的文件不保存
+ */
+@Slf4j
+public class ProjectFileSaverTemplate extends CodeFileSaverTemplate<ProjectCodeResult> {
+
+    private static final String INDEX_FILE = "index.html";
+
+    @Override
+    protected void saveFiles(String uniquePath, ProjectCodeResult codeResult) {
+        Map<String, String> files = new LinkedHashMap<>();
+        for (ProjectFile file : codeResult.getFiles()) {
+            String path = file.getPath() == null ? null : ProjectFilePath.normalize(file.getPath());
+            if (path == null) {
+                log.warn("忽略不合法的文件路径：{}", file.getPath());
+                continue;
+            }
+            if (files.size() >= getMaxFiles()) {
+                log.warn("文件数超过上限 {}，忽略：{}", getMaxFiles(), path);
+                continue;
+            }
+            files.putIfAbsent(path, file.getContent());
+        }
+        //文件之间没有依赖，并发写入
+        writeFiles(uniquePath, files);
+    }
+
+    @Override
+    protected CodeGenTypeEnum getCodeType() {
+        return CodeGenTypeEnum.PROJECT;
+    }
+
+    @Override
+    protected String resolveFileName(String language) {
+        return ProjectFilePath.resolve(language, null);
+    }
+
+    @Override
+    protected String resolveFileName(String language, String path) {
+        String fileName = ProjectFilePath.resolve(language, path);
+        if (fileName == null && path != null) {
+            log.warn("忽略不合法的文件路径：{}", path);
+        }
+        return fileName;
+    }
+
+    @Override
+    protected int getMaxFiles() {
+        return AppConstant.PROJECT_MAX_FILES;
+    }
+
+    @Override
+    protected void completeStream(CodeFileStreamSession session) {
+        if (!session.hasContent(INDEX_FILE)) {
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "项目缺少入口文件 index.html");
+        }
+    }
+
+    @Override
+    protected void validateInput(ProjectCodeResult codeResult) {
+        super.validateInput(codeResult);
+        boolean hasIndex = codeResult.getFiles() != null && codeResult.getFiles().stream()
+                .anyMatch(file -> file.getPath() != null && INDEX_FILE.equals(ProjectFilePath.normalize(file.getPath()))
+                        && file.getContent() != null && !file.getContent().isBlank());
+        if (!hasIndex) {
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "项目缺少入口文件 index.html");
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.company.core.storage;
+
+import com.company.exception.BusinessException;
+import com.company.exception.ErrorCode;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * 分段文件：一个版本的所有文件顺序追加写入同一个文件，末尾是偏移索引
+ * 格式：[魔数 4][格式版本 4][文件内容...][索引：(路径长度 4, 路径, 偏移 8, 长度 8)...][索引偏移 8][文件数 4][魔数 4]
+ * 读取时整体映射到内存，每个文件是映射区域上的一个切片
+ */
+public class CodeSegment {
+
+    private static final int MAGIC = 0x43534547;
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int HEADER_BYTES = 8;
+
+    private static final int FOOTER_BYTES = 16;
+
+    private final MappedByteBuffer buffer;
+
+    /**
+     * 路径 -> {偏移, 长度}
+     */
+    private final Map<String, int[]> index;
+
+    private final long lastModified;
+
+    private CodeSegment(MappedByteBuffer buffer, Map<String, int[]> index, long lastModified) {
+        this.buffer = buffer;
+        this.index = index;
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * 把目录下的所有文件打包为分段文件
+     *
+     * @param sourceDir   源目录
+     * @param segmentFile 分段文件（不能已存在）
+     */
+    public static void write(Path sourceDir, Path segmentFile) throws IOException {
+        List<Path> files;
+        try (Stream<Path> stream = Files.walk(sourceDir)) {
+            files = stream.filter(Files::isRegularFile).sorted().toList();
+        }
+        Map<String, long[]> entries = new HashMap<>();
+        try (FileChannel channel = FileChannel.open(segmentFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            writeFully(channel, ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(FORMAT_VERSION).flip());
+            for (Path file : files) {
+                long offset = channel.position();
+                try (FileChannel source = FileChannel.open(file, StandardOpenOption.READ)) {
+                    long size = source.size();
+                    long copied = 0;
+                    while (copied < size) {
+                        copied += channel.transferFrom(source, offset + copied, size - copied);
+                    }
+                    channel.position(offset + size);
+                    entries.put(sourceDir.relativize(file).toString().replace('\\', '/'), new long[]{offset, size});
+                }
+            }
+            long indexOffset = channel.position();
+            if (indexOffset > Integer.MAX_VALUE) {
+                throw new BusinessException(ErrorCode.SYSTEM_ERROR, "代码文件过大");
+            }
+            for (Map.Entry<String, long[]> entry : entries.entrySet()) {
+                byte[] path = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                writeFully(channel, ByteBuffer.allocate(4 + path.length + 16)
+                        .putInt(path.length).put(path).putLong(entry.getValue()[0]).putLong(entry.getValue()[1]).flip());
+            }
+            writeFully(channel, ByteBuffer.allocate(FOOTER_BYTES)
+                    .putLong(indexOffset).putInt(entries.size()).putInt(MAGIC).flip());
+            channel.force(true);
+        }
+    }
+
+    /**
+     * 打开分段文件并读取索引
+     *
+     * @param segmentFile 分段文件
+     */
+    public static CodeSegment open(Path segmentFile) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(segmentFile, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + FOOTER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("分段文件大小不正确：" + segmentFile);
+            }
+            // 关闭通道后映射仍然有效
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        buffer.order(ByteOrder.BIG_ENDIAN);
+        int footer = buffer.limit() - FOOTER_BYTES;
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(footer + 12) != MAGIC) {
+            throw new IOException("分段文件格式不正确：" + segmentFile);
+        }
+        int position = (int) buffer.getLong(footer);
+        int count = buffer.getInt(footer + 8);
+        Map<String, int[]> index = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            int pathLength = buffer.getInt(position);
+            byte[] path = new byte[pathLength];
+            buffer.get(position + 4, path);
+            position += 4 + pathLength;
+            int offset = (int) buffer.getLong(position);
+            int length = (int) buffer.getLong(position + 8);
+            position += 16;
+            index.put(new String(path, StandardCharsets.UTF_8), new int[]{offset, length});
+        }
+        return new CodeSegment(buffer, index, Files.getLastModifiedTime(segmentFile).toMillis());
+    }
+
+    /**
+     * 读取文件
+     *
+     * @param path 相对路径，如 index.html
+     * @return 文件，不存在返回 null
+     */
+    public StoredFile getFile(String path) {
+        int[] entry = index.get(path);
+        if (entry == null) {
+            return null;
+        }
+        return new SegmentStoredFile(buffer.slice(entry[0], entry[1]), lastModified);
+    }
+
+    /**
+     * 所有文件的相对路径
+     */
+    public Iterable<String> paths() {
+        return index.keySet();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
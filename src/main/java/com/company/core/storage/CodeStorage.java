@@ -0,0 +1,53 @@
+package com.company.core.storage;
+
+import java.io.File;
+import java.nio.file.Path;
+
+/**
+ * 生成代码存储
+ * 保存时先把文件写入本地暂存目录，写完后由存储发布为应用的当前版本；
+ * 预览读取当前版本中的文件，部署将当前版本导出到部署目录
+ */
+public interface CodeStorage {
+
+    /**
+     * 创建暂存目录，保存流程在其中写入普通文件
+     *
+     * @param dirName 目录名，如 html_1
+     * @return 暂存目录
+     */
+    Path createStagingDir(String dirName);
+
+    /**
+     * 将暂存目录发布为当前版本，发布后暂存目录归存储所有
+     *
+     * @param dirName    目录名
+     * @param stagingDir 暂存目录
+     * @return 预览访问路径
+     */
+    File publish(String dirName, Path stagingDir);
+
+    /**
+     * 丢弃未发布的暂存目录
+     *
+     * @param stagingDir 暂存目录
+     */
+    void discard(Path stagingDir);
+
+    /**
+     * 读取当前版本中的文件
+     *
+     * @param dirName 目录名
+     * @param path    文件相对路径，如 /index.html
+     * @return 文件，不存在返回 null
+     */
+    StoredFile getFile(String dirName, String path);
+
+    /**
+     * 将当前版本部署到部署目录
+     *
+     * @param dirName   目录名
+     * @param deployKey 部署标识
+     */
+    void deploy(String dirName, String deployKey);
+}
@@ -0,0 +1,46 @@
+package com.company.core.storage;
+
+import com.company.model.enums.CodeStorageTypeEnum;
+
+/**
+ * 代码存储工厂
+ * 全局只有一个存储实例，保存模板等静态代码通过这里获取；启动时由 CodeStorageConfig 按 code.storage 配置，
+ * 未配置前（如单元测试、基准测试）使用目录存储并开启 fsync
+ */
+public class CodeStorageFactory {
+
+    private static volatile CodeStorage codeStorage = new DirectoryCodeStorage();
+
+    private static volatile boolean fsync = true;
+
+    /**
+     * 按配置创建存储实例
+     *
+     * @param storageType 存储方式，未知的值按目录存储处理
+     * @param fsync       保存时是否 fsync
+     * @return 存储实例
+     */
+    public static CodeStorage configure(CodeStorageTypeEnum storageType, boolean fsync) {
+        CodeStorageFactory.fsync = fsync;
+        codeStorage = createStorage(storageType);
+        return codeStorage;
+    }
+
+    public static CodeStorage getStorage() {
+        return codeStorage;
+    }
+
+    /**
+     * 保存生成代码时是否 fsync
+     */
+    public static boolean isFsync() {
+        return fsync;
+    }
+
+    private static CodeStorage createStorage(CodeStorageTypeEnum storageType) {
+        if (storageType == CodeStorageTypeEnum.SEGMENT) {
+            return new SegmentCodeStorage();
+        }
+        return new DirectoryCodeStorage();
+    }
+}
@@ -0,0 +1,60 @@
+package com.company.core.storage;
+
+import com.company.constant.AppConstant;
+import com.company.core.saver.CodeBlobStore;
+import com.company.core.saver.CodeVersionManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * 目录存储（默认）
+ * 每个版本是 .versions 下的一个目录，文件硬链接到内容寻址存储，发布时原子切换符号链接；
+ * 部署时以硬链接方式导出到部署目录
+ */
+public class DirectoryCodeStorage implements CodeStorage {
+
+    @Override
+    public Path createStagingDir(String dirName) {
+        // 直接在新的版本目录中写入，发布时不需要移动文件
+        return CodeVersionManager.createVersionDir(dirName);
+    }
+
+    @Override
+    public File publish(String dirName, Path stagingDir) {
+        CodeBlobStore.ingest(stagingDir);
+        return CodeVersionManager.publish(dirName, stagingDir).toFile();
+    }
+
+    @Override
+    public void discard(Path stagingDir) {
+        CodeVersionManager.discard(stagingDir);
+    }
+
+    @Override
+    public StoredFile getFile(String dirName, String path) {
+        File file = new File(AppConstant.CODE_OUTPUT_ROOT_DIR + "/" + dirName + path);
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            // 修改时间取发布符号链接的创建时间（每次发布、回滚都会重建），而不是硬链接共享的内容文件时间；
+            // 先于解析真实路径读取，期间恰好发布新版本时只会让时间偏旧，客户端重新请求，不会误判为未修改
+            long publishedAt = Files.getLastModifiedTime(Paths.get(AppConstant.CODE_OUTPUT_ROOT_DIR, dirName),
+                    LinkOption.NOFOLLOW_LINKS).toMillis();
+            return new LocalStoredFile(file, publishedAt);
+        } catch (IOException e) {
+            // 检查后恰好被删除（旧版本被清理）
+            return null;
+        }
+    }
+
+    @Override
+    public void deploy(String dirName, String deployKey) {
+        CodeVersionManager.materialize(dirName, Paths.get(AppConstant.CODE_DEPLOY_ROOT_DIR, deployKey));
+    }
+}
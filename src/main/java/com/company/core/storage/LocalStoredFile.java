@@ -0,0 +1,73 @@
+package com.company.core.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * 本地目录中的文件
+ * 创建时解析符号链接得到所在版本目录中的真实路径，之后的读取都使用该路径：
+ * 响应头写出后即使发布了新版本，正文仍来自同一个版本，长度与内容一致。
+ * 版本中的文件硬链接到内容寻址存储，自身的修改时间是该内容第一次写入的时间，可能早于当前版本，
+ * 因此修改时间由调用方传入（版本的发布时间）
+ */
+public class LocalStoredFile implements StoredFile {
+
+    private final File file;
+
+    private final long length;
+
+    private final long lastModified;
+
+    /**
+     * @param file         文件（可以经过发布目录的符号链接）
+     * @param lastModified 修改时间（毫秒）
+     * @throws IOException 文件不存在或无法读取属性
+     */
+    public LocalStoredFile(File file, long lastModified) throws IOException {
+        Path realPath = file.toPath().toRealPath();
+        BasicFileAttributes attributes = Files.readAttributes(realPath, BasicFileAttributes.class);
+        this.file = realPath.toFile();
+        this.length = attributes.size();
+        this.lastModified = lastModified;
+    }
+
+    @Override
+    public long length() {
+        return length;
+    }
+
+    @Override
+    public long lastModified() {
+        return lastModified;
+    }
+
+    @Override
+    public byte[] readAllBytes() throws IOException {
+        return Files.readAllBytes(file.toPath());
+    }
+
+    @Override
+    public void transferTo(long position, long count, WritableByteChannel target) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            while (count > 0) {
+                long transferred = channel.transferTo(position, count, target);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+                count -= transferred;
+            }
+        }
+    }
+
+    @Override
+    public File getFile() {
+        return file;
+    }
+}
@@ -0,0 +1,94 @@
+package com.company.core.storage;
+
+import com.company.core.saver.CodePrecompressor;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 生成中的预览草稿
+ * 流式保存时每写完一个文件就登记到这里，预览优先读取草稿中的文件，其余文件仍来自当前版本；
+ * 还在写入的文件不会登记，预览看不到写了一半的内容。发布前或放弃保存时移除草稿，之后预览只读取发布的版本，
+ * 版本发布本身仍是一次原子切换
+ */
+public class PreviewDrafts {
+
+    /**
+     * 目录名 -> 草稿，同一应用同时有多次生成时以最近登记的为准
+     */
+    private static final Map<String, Draft> DRAFTS = new ConcurrentHashMap<>();
+
+    /**
+     * 登记一个已经写完的文件
+     *
+     * @param dirName    目录名，如 html_1
+     * @param stagingDir 暂存目录
+     * @param fileName   相对暂存目录的文件路径
+     */
+    public static void addFile(String dirName, Path stagingDir, String fileName) {
+        DRAFTS.compute(dirName, (key, draft) -> draft == null || !draft.stagingDir.equals(stagingDir)
+                ? new Draft(stagingDir, ConcurrentHashMap.newKeySet()) : draft).files.add(fileName);
+    }
+
+    /**
+     * 移除草稿，只移除该暂存目录登记的草稿
+     *
+     * @param dirName    目录名
+     * @param stagingDir 暂存目录
+     */
+    public static void remove(String dirName, Path stagingDir) {
+        DRAFTS.computeIfPresent(dirName, (key, draft) -> draft.stagingDir.equals(stagingDir) ? null : draft);
+    }
+
+    /**
+     * 草稿是否决定该路径的内容：路径是草稿中的文件，或者是草稿中文件的预压缩副本
+     * （草稿中的文件还没有压缩副本，不能返回当前版本中旧内容的副本）
+     *
+     * @param dirName 目录名
+     * @param path    文件路径，如 /index.html
+     */
+    public static boolean covers(String dirName, String path) {
+        Draft draft = DRAFTS.get(dirName);
+        if (draft == null) {
+            return false;
+        }
+        String fileName = toFileName(path);
+        if (fileName.endsWith(CodePrecompressor.GZIP_SUFFIX)) {
+            fileName = fileName.substring(0, fileName.length() - CodePrecompressor.GZIP_SUFFIX.length());
+        }
+        return draft.files.contains(fileName);
+    }
+
+    /**
+     * 读取草稿中的文件
+     *
+     * @param dirName 目录名
+     * @param path    文件路径，如 /index.html
+     * @return 文件，不在草稿中（包括预压缩副本）或已被删除时返回 null
+     */
+    public static StoredFile getFile(String dirName, String path) {
+        Draft draft = DRAFTS.get(dirName);
+        String fileName = toFileName(path);
+        if (draft == null || !draft.files.contains(fileName)) {
+            return null;
+        }
+        Path file = draft.stagingDir.resolve(fileName);
+        try {
+            return new LocalStoredFile(file.toFile(), Files.getLastModifiedTime(file).toMillis());
+        } catch (IOException e) {
+            // 草稿恰好被发布或丢弃
+            return null;
+        }
+    }
+
+    private static String toFileName(String path) {
+        return path.startsWith("/") ? path.substring(1) : path;
+    }
+
+    private record Draft(Path stagingDir, Set<String> files) {
+    }
+}
@@ -0,0 +1,230 @@
+package com.company.core.storage;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.IdUtil;
+import com.company.constant.AppConstant;
+import com.company.core.saver.CodeVersionManager;
+import com.company.exception.BusinessException;
+import com.company.exception.ErrorCode;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * 分段文件存储
+ * 每个版本打包为 .segments/{目录名}/{版本号}.seg 一个文件，CURRENT 记录当前版本号，
+ * 避免大量小文件占用 inode；预览读取是内存映射上的切片，备份、复制只需顺序拷贝分段文件
+ * 部署目录需要由 Web 服务器直接读取，部署时导出为普通文件
+ */
+@Slf4j
+public class SegmentCodeStorage implements CodeStorage {
+
+    private static final Path SEGMENT_ROOT = Paths.get(AppConstant.CODE_OUTPUT_ROOT_DIR, ".segments");
+
+    private static final Path STAGING_ROOT = SEGMENT_ROOT.resolve(".staging");
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private static final String CURRENT_FILE = "CURRENT";
+
+    /**
+     * 最多同时打开的版本数
+     */
+    private static final int MAX_OPEN_SEGMENTS = 1024;
+
+    /**
+     * 已打开的当前版本，访问顺序的 LinkedHashMap 实现 LRU，所有访问在 this 上同步；
+     * 淘汰时只移除引用，正在返回的切片仍可读取，之后映射随对象回收释放
+     */
+    private final LinkedHashMap<String, CodeSegment> segments = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CodeSegment> eldest) {
+            return size() > MAX_OPEN_SEGMENTS;
+        }
+    };
+
+    /**
+     * 每次发布递增，打开期间发生过发布的版本不再放入，避免放入旧版本
+     */
+    private long epoch;
+
+    @Override
+    public Path createStagingDir(String dirName) {
+        Path stagingDir = STAGING_ROOT.resolve(dirName + "." + IdUtil.getSnowflakeNextIdStr());
+        try {
+            Files.createDirectories(stagingDir);
+        } catch (IOException e) {
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "创建暂存目录失败");
+        }
+        return stagingDir;
+    }
+
+    @Override
+    public File publish(String dirName, Path stagingDir) {
+        String version = IdUtil.getSnowflakeNextIdStr();
+        Path segmentDir = SEGMENT_ROOT.resolve(dirName);
+        Path segmentFile = segmentDir.resolve(version + SEGMENT_SUFFIX);
+        try {
+            Files.createDirectories(segmentDir);
+            Path tmpFile = segmentDir.resolve("." + version + ".tmp");
+            CodeSegment.write(stagingDir, tmpFile);
+            Files.move(tmpFile, segmentFile, StandardCopyOption.ATOMIC_MOVE);
+            CodeSegment segment = CodeSegment.open(segmentFile);
+            // 发布串行执行，CURRENT 与内存中的版本保持一致
+            synchronized (this) {
+                writeCurrent(segmentDir, version);
+                segments.put(dirName, segment);
+                epoch++;
+            }
+        } catch (IOException | UncheckedIOException e) {
+            FileUtil.del(segmentFile.toFile());
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "发布版本失败：" + e.getMessage());
+        } finally {
+            FileUtil.del(stagingDir.toFile());
+        }
+        pruneSegments(dirName);
+        return new File(AppConstant.CODE_OUTPUT_ROOT_DIR, dirName);
+    }
+
+    @Override
+    public void discard(Path stagingDir) {
+        FileUtil.del(stagingDir.toFile());
+    }
+
+    @Override
+    public StoredFile getFile(String dirName, String path) {
+        CodeSegment segment = getSegment(dirName);
+        if (segment == null) {
+            return null;
+        }
+        return segment.getFile(path.startsWith("/") ? path.substring(1) : path);
+    }
+
+    @Override
+    public void deploy(String dirName, String deployKey) {
+        CodeSegment segment = getSegment(dirName);
+        if (segment == null) {
+            throw new BusinessException(ErrorCode.OPERATION_ERROR, "代码目录不存在");
+        }
+        Path targetDir = Paths.get(AppConstant.CODE_DEPLOY_ROOT_DIR, deployKey);
+        Path releaseDir = CodeVersionManager.createReleaseDir(targetDir);
+        try {
+            for (String path : segment.paths()) {
+                Path target = releaseDir.resolve(path).normalize();
+                if (!target.startsWith(releaseDir)) {
+                    continue;
+                }
+                Files.createDirectories(target.getParent());
+                StoredFile file = segment.getFile(path);
+                try (var channel = Files.newByteChannel(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                    file.transferTo(0, file.length(), channel);
+                }
+            }
+        } catch (IOException e) {
+            FileUtil.del(releaseDir.toFile());
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "代码部署失败");
+        }
+        // 与目录存储相同，通过原子替换部署链接切换
+        CodeVersionManager.publishRelease(targetDir, releaseDir);
+    }
+
+    /**
+     * 当前版本，未打开时打开（在锁外读取文件）
+     */
+    private CodeSegment getSegment(String dirName) {
+        long startEpoch;
+        synchronized (this) {
+            CodeSegment segment = segments.get(dirName);
+            if (segment != null) {
+                return segment;
+            }
+            startEpoch = epoch;
+        }
+        CodeSegment opened = openCurrent(dirName);
+        if (opened == null) {
+            return null;
+        }
+        synchronized (this) {
+            // 打开期间可能已被其他请求打开，以已有的为准
+            CodeSegment segment = segments.get(dirName);
+            if (segment != null) {
+                return segment;
+            }
+            if (epoch == startEpoch) {
+                segments.put(dirName, opened);
+                return opened;
+            }
+        }
+        // 打开期间有发布，读到的 CURRENT 可能已过时，本次重新读取且不放入
+        return openCurrent(dirName);
+    }
+
+    /**
+     * 打开 CURRENT 记录的版本，未发布过返回 null
+     */
+    private CodeSegment openCurrent(String dirName) {
+        Path segmentDir = SEGMENT_ROOT.resolve(dirName);
+        Path currentFile = segmentDir.resolve(CURRENT_FILE);
+        if (!Files.isRegularFile(currentFile)) {
+            return null;
+        }
+        try {
+            String version = Files.readString(currentFile, StandardCharsets.UTF_8).trim();
+            return CodeSegment.open(segmentDir.resolve(version + SEGMENT_SUFFIX));
+        } catch (IOException e) {
+            log.error("打开分段文件失败：{}", dirName, e);
+            return null;
+        }
+    }
+
+    private static void writeCurrent(Path segmentDir, String version) {
+        try {
+            Path tmpFile = segmentDir.resolve("." + CURRENT_FILE + "." + version);
+            Files.writeString(tmpFile, version, StandardCharsets.UTF_8);
+            Files.move(tmpFile, segmentDir.resolve(CURRENT_FILE), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 只保留最近的若干个版本，当前版本始终保留
+     */
+    private void pruneSegments(String dirName) {
+        Path segmentDir = SEGMENT_ROOT.resolve(dirName);
+        String current;
+        List<Path> segmentFiles;
+        try (Stream<Path> stream = Files.list(segmentDir)) {
+            current = Files.readString(segmentDir.resolve(CURRENT_FILE), StandardCharsets.UTF_8).trim() + SEGMENT_SUFFIX;
+            segmentFiles = stream.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted(Comparator.comparing((Path path) -> path.getFileName().toString().length())
+                            .thenComparing(path -> path.getFileName().toString()).reversed())
+                    .toList();
+        } catch (IOException e) {
+            log.warn("读取分段目录失败：{}", segmentDir, e);
+            return;
+        }
+        for (int i = AppConstant.CODE_VERSION_KEEP_COUNT; i < segmentFiles.size(); i++) {
+            Path segmentFile = segmentFiles.get(i);
+            if (segmentFile.getFileName().toString().equals(current)) {
+                continue;
+            }
+            // 已映射的旧版本在引用释放前仍可读取
+            log.info("清理旧版本：{}", segmentFile);
+            FileUtil.del(segmentFile.toFile());
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.company.core.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * 分段文件中的一个文件（内存映射区域上的切片）
+ */
+public class SegmentStoredFile implements StoredFile {
+
+    private final ByteBuffer slice;
+
+    private final long lastModified;
+
+    public SegmentStoredFile(ByteBuffer slice, long lastModified) {
+        this.slice = slice;
+        this.lastModified = lastModified;
+    }
+
+    @Override
+    public long length() {
+        return slice.capacity();
+    }
+
+    @Override
+    public long lastModified() {
+        return lastModified;
+    }
+
+    @Override
+    public byte[] readAllBytes() {
+        byte[] bytes = new byte[slice.capacity()];
+        slice.get(0, bytes);
+        return bytes;
+    }
+
+    @Override
+    public void transferTo(long position, long count, WritableByteChannel target) throws IOException {
+        // 每次写入使用独立的切片，并发读取互不影响
+        ByteBuffer part = slice.slice((int) position, (int) count);
+        while (part.hasRemaining()) {
+            target.write(part);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.company.core.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * 存储中的一个文件
+ */
+public interface StoredFile {
+
+    long length();
+
+    long lastModified();
+
+    byte[] readAllBytes() throws IOException;
+
+    /**
+     * 将文件的一段写入目标通道
+     *
+     * @param position 起始位置
+     * @param count    字节数
+     * @param target   目标通道
+     */
+    void transferTo(long position, long count, WritableByteChannel target) throws IOException;
+
+    /**
+     * 对应的本地文件，可用于 sendfile；不是独立文件时返回 null
+     */
+    default File getFile() {
+        return null;
+    }
+}
@@ -22,5 +22,10 @@ public class AppAddRequest implements Serializable {
      */
     private String initPrompt;
 
+    /**
+     * 代码生成类型（html / multiFile / project），为空时使用多文件模式
+     */
+    private String codeGenType;
+
     private static final long serialVersionUID = 1L;
 }
@@ -0,0 +1,31 @@
+package com.company.model.enums;
+
+import cn.hutool.core.util.ObjUtil;
+import lombok.Getter;
+
+@Getter
+public enum CodeStorageTypeEnum {
+
+    DIRECTORY("目录存储", "directory"),
+    SEGMENT("分段文件存储", "segment");
+
+    private final String text;
+    private final String value;
+
+    CodeStorageTypeEnum(String text, String value) {
+        this.text = text;
+        this.value = value;
+    }
+
+    public static CodeStorageTypeEnum getEnumByValue(String value) {
+        if (ObjUtil.isEmpty(value)) {
+            return null;
+        }
+        for (CodeStorageTypeEnum codeStorageTypeEnum : CodeStorageTypeEnum.values()) {
+            if (codeStorageTypeEnum.value.equals(value)) {
+                return codeStorageTypeEnum;
+            }
+        }
+        return null;
+    }
+}
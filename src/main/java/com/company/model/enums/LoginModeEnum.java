@@ -0,0 +1,32 @@
+package com.company.model.enums;
+
+import cn.hutool.core.util.ObjUtil;
+import lombok.Getter;
+
+@Getter
+public enum LoginModeEnum {
+
+    SESSION("HttpSession", "session"),
+    TOKEN("无状态签名令牌", "token"),
+    STORE("堆外会话存储", "store");
+
+    private final String text;
+    private final String value;
+
+    LoginModeEnum(String text, String value) {
+        this.text = text;
+        this.value = value;
+    }
+
+    public static LoginModeEnum getEnumByValue(String value) {
+        if (ObjUtil.isEmpty(value)) {
+            return null;
+        }
+        for (LoginModeEnum loginModeEnum : LoginModeEnum.values()) {
+            if (loginModeEnum.value.equals(value)) {
+                return loginModeEnum;
+            }
+        }
+        return null;
+    }
+}
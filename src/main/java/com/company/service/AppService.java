@@ -7,6 +7,7 @@ import com.company.model.entity.User;
 import com.company.model.vo.AppVO;
 import com.mybatisflex.core.query.QueryWrapper;
 import com.mybatisflex.core.service.IService;
+import com.company.core.GenerationChunk;
 import reactor.core.publisher.Flux;
 
 import java.util.List;
@@ -23,9 +24,19 @@ public interface AppService extends IService<App> {
      * @param message
      * @param appId
      * @param loginUser
+     * @param lastEventId 断线重连时最后收到的序号，新请求为 0
      * @return
      */
-    Flux<String> chatToGenCode(String message, Long appId, User loginUser);
+    Flux<GenerationChunk> chatToGenCode(String message, Long appId, User loginUser, long lastEventId);
+
+    /**
+     * 断线重连，继续接收应用当前生成中缺少的内容
+     * @param appId
+     * @param loginUser
+     * @param lastEventId 最后收到的序号
+     * @return
+     */
+    Flux<GenerationChunk> resumeGenCode(Long appId, User loginUser, long lastEventId);
 
     /**
      * 应用部署
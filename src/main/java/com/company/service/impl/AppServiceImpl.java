@@ -2,12 +2,14 @@ package com.company.service.impl;
 
 import cn.hutool.core.bean.BeanUtil;
 import cn.hutool.core.collection.CollUtil;
-import cn.hutool.core.io.FileUtil;
 import cn.hutool.core.util.RandomUtil;
 import cn.hutool.core.util.StrUtil;
 import com.company.ai.model.enums.CodeGenTypeEnum;
 import com.company.constant.AppConstant;
+import com.company.constant.UserConstant;
 import com.company.core.AiCodeGeneratorFacade;
+import com.company.core.GenerationChunk;
+import com.company.core.storage.CodeStorage;
 import com.company.exception.BusinessException;
 import com.company.exception.ErrorCode;
 import com.company.exception.ThrowUtils;
@@ -29,7 +31,6 @@ import reactor.core.publisher.Flux;
 
 
 import java.io.File;
-import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -49,6 +50,8 @@ public class AppServiceImpl extends ServiceImpl<AppMapper, App> implements AppSe
     private UserService userService;
     @Resource
     private AiCodeGeneratorFacade aiCodeGeneratorFacade;
+    @Resource
+    private CodeStorage codeStorage;
 
     /**
      * 应用聊天生成代码（流式SSE）
@@ -56,10 +59,11 @@ public class AppServiceImpl extends ServiceImpl<AppMapper, App> implements AppSe
      * @param message
      * @param appId
      * @param loginUser
+     * @param lastEventId
      * @return
      */
     @Override
-    public Flux<String> chatToGenCode(String message, Long appId, User loginUser) {
+    public Flux<GenerationChunk> chatToGenCode(String message, Long appId, User loginUser, long lastEventId) {
         //校验参数
         ThrowUtils.throwIf(appId == null || appId <= 0, ErrorCode.PARAMS_ERROR, "应用ID不能为空");
         ThrowUtils.throwIf(StrUtil.isBlank(message), ErrorCode.PARAMS_ERROR, "用户消息不能为空");
@@ -78,8 +82,24 @@ public class AppServiceImpl extends ServiceImpl<AppMapper, App> implements AppSe
         if (codeGenTypeEnum == null) {
             codeGenTypeEnum = CodeGenTypeEnum.MULTI_FILE;
         }
+        //管理员排队权重更高
+        int weight = UserConstant.ADMIN_ROLE.equals(loginUser.getUserRole()) ? AppConstant.GENERATION_ADMIN_WEIGHT : 1;
         //调用生成代码接口
-        return aiCodeGeneratorFacade.generateAndSaveCodeStream(message, codeGenTypeEnum, appId);
+        return aiCodeGeneratorFacade.generateAndSaveCodeStream(message, codeGenTypeEnum, appId, loginUser.getId(), weight, lastEventId);
+    }
+
+    @Override
+    public Flux<GenerationChunk> resumeGenCode(Long appId, User loginUser, long lastEventId) {
+        //校验参数
+        ThrowUtils.throwIf(appId == null || appId <= 0, ErrorCode.PARAMS_ERROR, "应用ID不能为空");
+        //查询应用信息
+        App app = this.getById(appId);
+        ThrowUtils.throwIf(app == null, ErrorCode.NOT_FOUND_ERROR, "应用不存在");
+        //验证用户权限
+        if (!app.getUserId().equals(loginUser.getId())) {
+            throw new BusinessException(ErrorCode.NO_AUTH_ERROR, "无权限访问");
+        }
+        return aiCodeGeneratorFacade.resumeCodeStream(appId, lastEventId);
     }
 
     @Override
@@ -103,20 +123,9 @@ public class AppServiceImpl extends ServiceImpl<AppMapper, App> implements AppSe
         //获取代码生成类型
         String codeGenType = app.getCodeGenType();
         String sourceDirName = codeGenType + "_" + app.getId();
-        String sourceDirPath = AppConstant.CODE_OUTPUT_ROOT_DIR + File.separator + sourceDirName;
 
-        //检查代码目录是否存在
-        File sourceDir = new File(sourceDirPath);
-        if (!sourceDir.exists()||!sourceDir.isDirectory()) {
-            throw new BusinessException(ErrorCode.OPERATION_ERROR, "代码目录不存在");
-        }
-        //复制代码到部署目录中
-        String deployDirPath = AppConstant.CODE_DEPLOY_ROOT_DIR + File.separator + deployKey;
-        try{
-            FileUtil.copyContent(sourceDir, new File(deployDirPath), true);
-        }catch (Exception e){
-            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "代码复制失败");
-        }
+        //把当前版本部署到部署目录
+        codeStorage.deploy(sourceDirName, deployKey);
 
         //更新deployKey和部署时间
         App updateApp = new App();
@@ -158,6 +167,10 @@ public class AppServiceImpl extends ServiceImpl<AppMapper, App> implements AppSe
         if (StrUtil.isNotBlank(initPrompt) && initPrompt.length() > 10000) {
             throw new BusinessException(ErrorCode.PARAMS_ERROR, "initPrompt 内容过长");
         }
+        String codeGenType = app.getCodeGenType();
+        if (StrUtil.isNotBlank(codeGenType) && CodeGenTypeEnum.getEnumByValue(codeGenType) == null) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "不支持的生成类型");
+        }
     }
 
     /**
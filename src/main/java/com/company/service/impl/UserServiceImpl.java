@@ -3,6 +3,10 @@ package com.company.service.impl;
 import cn.hutool.core.bean.BeanUtil;
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.util.StrUtil;
+import com.company.auth.LoginSession;
+import com.company.auth.LoginSessionRepository;
+import com.company.auth.PasswordService;
+import com.company.cache.LoginUserCache;
 import com.company.exception.BusinessException;
 import com.company.exception.ErrorCode;
 import com.company.model.dto.UserQueryRequest;
@@ -14,25 +18,39 @@ import com.mybatisflex.spring.service.impl.ServiceImpl;
 import com.company.model.entity.User;
 import com.company.mapper.UserMapper;
 import com.company.service.UserService;
+import jakarta.annotation.Resource;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.kafka.SslBundleSslEngineFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.util.DigestUtils;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
-import static com.company.constant.UserConstant.USER_LOGIN_STATE;
+import static com.company.constant.UserConstant.LOGIN_USER_ATTRIBUTE;
 
 /**
  * 用户 服务层实现。
  *
  * @author gd
  */
+@Slf4j
 @Service
 public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements UserService {
 
+    @Resource
+    private LoginUserCache loginUserCache;
+
+    @Resource
+    private LoginSessionRepository loginSessionRepository;
+
+    @Resource
+    private PasswordService passwordService;
+
     /**
      * 用户注册
      *
@@ -103,7 +121,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
      * @param userPassword
      * @return 脱敏后的用户信息
      */
-    public LoginUserVO userLogin(String userAccount, String userPassword, HttpServletRequest request) {
+    public LoginUserVO userLogin(String userAccount, String userPassword, HttpServletRequest request, HttpServletResponse response) {
         //校验
         if (StrUtil.hasBlank(userAccount, userPassword)) {
             throw new BusinessException(ErrorCode.PARAMS_ERROR, "参数为空");
@@ -114,18 +132,24 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         if (userPassword.length() < 8) {
             throw new BusinessException(ErrorCode.PARAMS_ERROR, "用户密码过短");
         }
-        //查看用户是否存在
-        String encryptPassword = getEncryptPassword(userPassword);
-
+        //查看用户是否存在，按账号查询后校验密码
         QueryWrapper queryWrapper = new QueryWrapper();
         queryWrapper.eq("userAccount", userAccount);
-        queryWrapper.eq("userPassword",encryptPassword);
         User user = this.mapper.selectOneByQuery(queryWrapper);
-        if(user==null){
+        if (user == null) {
+            //账号不存在时也做一次同样耗时的校验，不能通过响应时间探测账号是否存在
+            passwordService.matches(userPassword, passwordService.getDummyHash());
             throw new BusinessException(ErrorCode.PARAMS_ERROR, "用户不存在或密码错误");
         }
-        //记录用户状态到session
-        request.getSession().setAttribute(USER_LOGIN_STATE, user);
+        if (!passwordService.matches(userPassword, user.getUserPassword())) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "用户不存在或密码错误");
+        }
+        //旧算法或旧参数的密码按当前算法重新计算
+        if (passwordService.needsRehash(user.getUserPassword())) {
+            rehashPassword(user, userPassword);
+        }
+        //记录登录态（只保存用户id和角色）
+        loginSessionRepository.save(new LoginSession(user.getId(), user.getUserRole()), request, response);
         //返回脱敏后的用户信息
         return this.getUserLoginVO(user);
     }
@@ -137,17 +161,24 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
      */
     @Override
     public User getLoginUser(HttpServletRequest request) {
-        Object attribute = request.getSession().getAttribute(USER_LOGIN_STATE);
-        User currentUser = (User) attribute;
-        if(currentUser ==null || currentUser.getId()==null){
+        //同一请求内只解析一次（接口和权限校验切面都会调用）
+        Object memo = request.getAttribute(LOGIN_USER_ATTRIBUTE);
+        if (memo instanceof User user) {
+            return user;
+        }
+        LoginSession session = loginSessionRepository.find(request);
+        if(session ==null){
             throw new BusinessException(ErrorCode.NOT_LOGIN_ERROR,"未登录");
         }
-        Long id = currentUser.getId();
-        currentUser = this.getById(id);
+        User currentUser = loginUserCache.get(session.userId(), this::getById);
         if(currentUser==null){
             throw new BusinessException(ErrorCode.NOT_LOGIN_ERROR,"用户不存在");
         }
-
+        //角色变化后登录态失效，需要重新登录
+        if (!Objects.equals(session.userRole(), currentUser.getUserRole())) {
+            throw new BusinessException(ErrorCode.NOT_LOGIN_ERROR, "登录状态已失效");
+        }
+        request.setAttribute(LOGIN_USER_ATTRIBUTE, currentUser);
         return currentUser;
     }
 
@@ -157,8 +188,8 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
      * @return
      */
     @Override
-    public boolean userLogout(HttpServletRequest request) {
-        request.getSession().removeAttribute(USER_LOGIN_STATE);
+    public boolean userLogout(HttpServletRequest request, HttpServletResponse response) {
+        loginSessionRepository.remove(request, response);
         return true;
     }
 
@@ -220,17 +251,55 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
 
 
     /**
- * 获取加密密码
- * @param password
- * @return
- */
-    public String getEncryptPassword(String password) {
-        //盐值 混淆密码
-        final String salt = "sgd";
-        return DigestUtils.md5DigestAsHex((salt + password).getBytes());
+     * 更新用户，同时失效登录用户缓存
+     * @param user
+     * @return
+     */
+    @Override
+    public boolean updateById(User user) {
+        boolean result = super.updateById(user);
+        if (user != null) {
+            loginUserCache.invalidate(user.getId());
+        }
+        return result;
     }
 
+    /**
+     * 删除用户，同时失效登录用户缓存
+     * @param id
+     * @return
+     */
+    @Override
+    public boolean removeById(Serializable id) {
+        boolean result = super.removeById(id);
+        if (id instanceof Long userId) {
+            loginUserCache.invalidate(userId);
+        }
+        return result;
+    }
 
+    /**
+     * 获取加密密码
+     * @param password
+     * @return
+     */
+    @Override
+    public String getEncryptPassword(String password) {
+        return passwordService.hash(password);
+    }
 
+    /**
+     * 登录成功后更新密码哈希，失败不影响本次登录
+     */
+    private void rehashPassword(User user, String password) {
+        try {
+            User update = new User();
+            update.setId(user.getId());
+            update.setUserPassword(passwordService.hash(password));
+            this.updateById(update);
+        } catch (RuntimeException e) {
+            log.warn("更新密码哈希失败，用户：{}", user.getId(), e);
+        }
+    }
 
 }
@@ -0,0 +1,147 @@
+package com.company.ai.routing;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.StreamingChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.chat.response.PartialResponse;
+import dev.langchain4j.model.chat.response.PartialResponseContext;
+import dev.langchain4j.model.chat.response.StreamingChatResponseHandler;
+import dev.langchain4j.model.chat.response.StreamingHandle;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoutingStreamingChatModelTest {
+
+    private static final ChatRequest REQUEST = ChatRequest.builder().messages(UserMessage.from("hi")).build();
+
+    @Test
+    void failOverToNextEndpointBeforeFirstToken() throws Exception {
+        FakeModel broken = new FakeModel(0, null);
+        FakeModel backup = new FakeModel(0, "backup");
+        RoutingStreamingChatModel model = new RoutingStreamingChatModel(
+                List.of(new ModelEndpoint("broken", broken), new ModelEndpoint("backup", backup)), false, 0, 0);
+
+        assertEquals("backup", chat(model));
+        assertEquals(1.0, model.getEndpoints().get(0).getErrorRate());
+    }
+
+    @Test
+    void hedgeWhenFirstTokenIsLateAndCancelLoser() throws Exception {
+        FakeModel slow = new FakeModel(500, "slow");
+        FakeModel fast = new FakeModel(0, "fast");
+        RoutingStreamingChatModel model = new RoutingStreamingChatModel(
+                List.of(new ModelEndpoint("slow", slow), new ModelEndpoint("fast", fast)), true, 50, 100);
+
+        assertEquals("fast", chat(model));
+        // 慢的请求返回内容时被取消
+        assertTrue(slow.cancelled.get(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void routeToFastestHealthyEndpoint() {
+        ModelEndpoint slow = new ModelEndpoint("slow", new FakeModel(0, "slow"));
+        ModelEndpoint fast = new ModelEndpoint("fast", new FakeModel(0, "fast"));
+        ModelEndpoint broken = new ModelEndpoint("broken", new FakeModel(0, null));
+        slow.recordFirstToken(900);
+        fast.recordFirstToken(200);
+        for (int i = 0; i < 3; i++) {
+            broken.recordFailure();
+        }
+        RoutingStreamingChatModel model = new RoutingStreamingChatModel(List.of(slow, broken, fast), false, 0, 0);
+
+        assertEquals(List.of(fast, slow), model.rankEndpoints());
+    }
+
+    @Test
+    void reportErrorWhenAllEndpointsFail() {
+        RoutingStreamingChatModel model = new RoutingStreamingChatModel(
+                List.of(new ModelEndpoint("a", new FakeModel(0, null)), new ModelEndpoint("b", new FakeModel(0, null))), true, 50, 100);
+
+        Exception e = assertThrows(Exception.class, () -> chat(model));
+        assertTrue(e.getCause().getMessage().contains("failed"));
+    }
+
+    private static String chat(StreamingChatModel model) throws Exception {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        StringBuilder text = new StringBuilder();
+        model.chat(REQUEST, new StreamingChatResponseHandler() {
+            @Override
+            public void onPartialResponse(String partialResponse) {
+                text.append(partialResponse);
+            }
+
+            @Override
+            public void onCompleteResponse(ChatResponse completeResponse) {
+                result.complete(text.toString());
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                result.completeExceptionally(error);
+            }
+        });
+        return result.get(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 延迟 delayMillis 后返回 reply（分两段），reply 为 null 时返回错误
+     */
+    private static class FakeModel implements StreamingChatModel {
+
+        private final long delayMillis;
+
+        private final String reply;
+
+        private final CompletableFuture<Boolean> cancelled = new CompletableFuture<>();
+
+        private FakeModel(long delayMillis, String reply) {
+            this.delayMillis = delayMillis;
+            this.reply = reply;
+        }
+
+        @Override
+        public void chat(ChatRequest chatRequest, StreamingChatResponseHandler handler) {
+            Thread.ofVirtual().start(() -> {
+                try {
+                    Thread.sleep(delayMillis);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (reply == null) {
+                    handler.onError(new IllegalStateException("failed"));
+                    return;
+                }
+                Handle handle = new Handle();
+                handler.onPartialResponse(new PartialResponse(reply.substring(0, 1)), new PartialResponseContext(handle));
+                if (handle.cancelled) {
+                    cancelled.complete(true);
+                    return;
+                }
+                handler.onPartialResponse(new PartialResponse(reply.substring(1)), new PartialResponseContext(handle));
+                handler.onCompleteResponse(ChatResponse.builder().aiMessage(AiMessage.from(reply)).build());
+            });
+        }
+    }
+
+    private static class Handle implements StreamingHandle {
+
+        private volatile boolean cancelled;
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.company.auth;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginTokenServiceTest {
+
+    private static final byte[] SECRET = "test-secret-test-secret".getBytes(StandardCharsets.UTF_8);
+
+    private final LoginSession session = new LoginSession(1234567890123L, "admin");
+
+    @Test
+    void issueAndVerify() {
+        LoginTokenService service = new LoginTokenService(SECRET, 1, 3600);
+        String token = service.issue(session);
+
+        assertEquals(56, token.length());
+        LoginToken loginToken = service.verify(token);
+        assertNotNull(loginToken);
+        assertEquals(1234567890123L, loginToken.userId());
+        assertEquals("admin", loginToken.userRole());
+        assertEquals(1, loginToken.keyVersion());
+    }
+
+    @Test
+    void rejectTamperedForeignAndExpiredTokens() {
+        LoginTokenService service = new LoginTokenService(SECRET, 1, 3600);
+        String token = service.issue(session);
+        byte[] bytes = Base64.getUrlDecoder().decode(token);
+        // 改写用户 id
+        bytes[8] ^= 1;
+        assertNull(service.verify(Base64.getUrlEncoder().withoutPadding().encodeToString(bytes)));
+        assertNull(service.verify("not a token"));
+        assertNull(service.verify(null));
+        // 其他密钥、其他密钥版本签发的令牌
+        assertNull(new LoginTokenService("other".getBytes(StandardCharsets.UTF_8), 1, 3600).verify(token));
+        assertNull(new LoginTokenService(SECRET, 2, 3600).verify(token));
+        // 已过期
+        assertNull(service.verify(new LoginTokenService(SECRET, 1, -1).issue(session)));
+    }
+
+    @Test
+    void revokeOnLogout() {
+        LoginTokenService service = new LoginTokenService(SECRET, 1, 3600);
+        String token = service.issue(session);
+        String other = service.issue(session);
+        service.revoke(service.verify(token));
+
+        assertNull(service.verify(token));
+        assertNotNull(service.verify(other));
+    }
+
+    @Test
+    void revokedFilterForgetsAfterTwoGenerations() throws InterruptedException {
+        RevokedTokenFilter filter = new RevokedTokenFilter(1024, 50);
+        filter.revoke(42L);
+        assertTrue(filter.isRevoked(42L));
+        Thread.sleep(60);
+        // 上一代仍然保留
+        assertTrue(filter.isRevoked(42L));
+        Thread.sleep(60);
+        assertFalse(filter.isRevoked(42L));
+    }
+}
@@ -0,0 +1,76 @@
+package com.company.auth;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapLoginRepositoryTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void createGetAndDelete() {
+        try (OffHeapLoginRepository repository = new OffHeapLoginRepository(1000, 3600, null)) {
+            String sessionId = repository.create(new LoginSession(42L, "admin"));
+
+            assertEquals(22, sessionId.length());
+            assertEquals(new LoginSession(42L, "admin"), repository.get(sessionId));
+            assertNull(repository.get("AAAAAAAAAAAAAAAAAAAAAA"));
+            assertNull(repository.get("not a session id"));
+            assertNull(repository.get(null));
+
+            repository.delete(sessionId);
+            assertNull(repository.get(sessionId));
+            assertEquals(0, repository.size());
+        }
+    }
+
+    @Test
+    void evictOldestWhenFull() {
+        try (OffHeapLoginRepository repository = new OffHeapLoginRepository(160, 3600, null)) {
+            List<String> sessionIds = new ArrayList<>();
+            for (int i = 0; i < 5000; i++) {
+                sessionIds.add(repository.create(new LoginSession(i, "user")));
+            }
+            // 容量按段平均分配，满后淘汰最久未访问的会话，内存不增长
+            assertTrue(repository.size() <= 160);
+            assertEquals(new LoginSession(4999, "user"), repository.get(sessionIds.get(4999)));
+        }
+    }
+
+    @Test
+    void evictIdleSessions() {
+        try (OffHeapLoginRepository repository = new OffHeapLoginRepository(100, -1, null)) {
+            String sessionId = repository.create(new LoginSession(1L, "user"));
+            assertNull(repository.get(sessionId));
+            repository.create(new LoginSession(2L, "user"));
+            assertEquals(1, repository.evictIdle());
+            assertEquals(0, repository.size());
+        }
+    }
+
+    @Test
+    void restoreFromFile() {
+        Path file = dir.resolve("sessions.bin");
+        String sessionId;
+        try (OffHeapLoginRepository repository = new OffHeapLoginRepository(1000, 3600, file)) {
+            sessionId = repository.create(new LoginSession(7L, "user"));
+            repository.delete(repository.create(new LoginSession(8L, "user")));
+        }
+        try (OffHeapLoginRepository repository = new OffHeapLoginRepository(1000, 3600, file)) {
+            assertEquals(1, repository.size());
+            assertEquals(new LoginSession(7L, "user"), repository.get(sessionId));
+        }
+        // 容量变化后丢弃原有会话
+        try (OffHeapLoginRepository repository = new OffHeapLoginRepository(2000, 3600, file)) {
+            assertEquals(0, repository.size());
+            assertNull(repository.get(sessionId));
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.company.auth;
+
+import com.company.exception.BusinessException;
+import com.company.exception.ErrorCode;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordServiceTest {
+
+    @Test
+    void hashAndVerifyWithPbkdf2() {
+        PasswordService service = new PasswordService(new Pbkdf2PasswordHasher(1000), 2, 16);
+        String stored = service.hash("12345678");
+
+        assertTrue(stored.startsWith("pbkdf2-sha256$1000$"));
+        // 每次使用随机盐
+        assertNotEquals(stored, service.hash("12345678"));
+        assertTrue(service.matches("12345678", stored));
+        assertFalse(service.matches("87654321", stored));
+        assertFalse(service.needsRehash(stored));
+        // 占位哈希与真实哈希使用相同的算法和参数，只计算一次
+        assertTrue(service.getDummyHash().startsWith("pbkdf2-sha256$1000$"));
+        assertSame(service.getDummyHash(), service.getDummyHash());
+        assertFalse(service.matches("12345678", service.getDummyHash()));
+        // 调大迭代次数后需要重新计算，旧哈希仍可校验
+        PasswordService stronger = new PasswordService(new Pbkdf2PasswordHasher(2000), 2, 16);
+        assertTrue(stronger.matches("12345678", stored));
+        assertTrue(stronger.needsRehash(stored));
+    }
+
+    @Test
+    void verifyLegacyMd5AndRejectUnknown() {
+        PasswordService service = new PasswordService(new Pbkdf2PasswordHasher(1000), 2, 16);
+        // 旧版本保存的 md5("sgd" + "12345678")
+        String legacy = new Md5PasswordHasher().hash("12345678");
+
+        assertTrue(service.matches("12345678", legacy));
+        assertFalse(service.matches("87654321", legacy));
+        assertTrue(service.needsRehash(legacy));
+        assertFalse(service.matches("12345678", "plain-text"));
+        assertFalse(service.matches("12345678", "pbkdf2-sha256$abc$$"));
+        assertFalse(service.matches("12345678", null));
+    }
+
+    @Test
+    void rejectWhenQueueIsFull() throws Exception {
+        PasswordService service = new PasswordService(new Pbkdf2PasswordHasher(2_000_000), 1, 1);
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(callers.submit(() -> service.hash("12345678")));
+            }
+            int rejected = 0;
+            for (Future<String> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    BusinessException exception = assertInstanceOf(BusinessException.class, e.getCause());
+                    assertEquals(ErrorCode.TOO_MANY_REQUEST.getCode(), exception.getCode());
+                    rejected++;
+                }
+            }
+            // 一个在计算、一个在排队，其余被拒绝
+            assertEquals(2, rejected);
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.company.benchmark;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.io.resource.ResourceUtil;
+import com.company.ai.model.enums.CodeGenTypeEnum;
+import com.company.constant.AppConstant;
+import com.company.core.parser.CodeParserExecutor;
+import com.company.core.saver.CodeFileSaverExecutor;
+import com.company.core.storage.CodeStorageFactory;
+import com.company.model.enums.CodeStorageTypeEnum;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 保存一次生成结果的耗时：写暂存目录、预压缩、写入内容寻址存储并发布版本
+ * 每次调用都发布一个新版本（超过保留数量的旧版本会被清理），结果受磁盘影响较大，只适合同一台机器上前后对比
+ * fsync 参数对比持久化与不持久化（code.storage.fsync=false）的耗时
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CodeFileSaverBenchmark {
+
+    private static final long APP_ID = 9_100_000L;
+
+    @Param({"html", "multiFile"})
+    private String type;
+
+    @Param({"true", "false"})
+    private boolean fsync;
+
+    private CodeGenTypeEnum codeGenType;
+
+    private Object codeResult;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        CodeStorageFactory.configure(CodeStorageTypeEnum.DIRECTORY, fsync);
+        codeGenType = CodeGenTypeEnum.getEnumByValue(type);
+        String output = ResourceUtil.readUtf8Str(codeGenType == CodeGenTypeEnum.MULTI_FILE
+                ? "stub/multi-file-response.md" : "stub/html-response.md");
+        codeResult = CodeParserExecutor.executeParser(output, codeGenType);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        String dirName = type + "_" + APP_ID;
+        FileUtil.del(new File(AppConstant.CODE_OUTPUT_ROOT_DIR, dirName));
+        FileUtil.del(new File(AppConstant.CODE_OUTPUT_ROOT_DIR, ".versions/" + dirName));
+    }
+
+    @Benchmark
+    public File saveCode() {
+        return CodeFileSaverExecutor.executeSaver(codeGenType, codeResult, APP_ID);
+    }
+}
@@ -0,0 +1,84 @@
+package com.company.benchmark;
+
+import cn.hutool.core.io.resource.ResourceUtil;
+import com.company.ai.model.HtmlCodeResult;
+import com.company.ai.model.MultiFileCodeResult;
+import com.company.core.parser.HtmlCodeParser;
+import com.company.core.parser.MultiFileCodeParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 完整输出解析耗时（非流式生成、缓存命中时使用）
+ * normal 为录制的一次真实生成结果；noFences 为约 200KB 没有代码块的说明文字；
+ * manyFences 为上千个其他语言的代码块后面才出现目标代码块；unclosedFence 为代码块开始后一直没有结束标记
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CodeParserBenchmark {
+
+    private static final String PROSE = "页面采用响应式布局，在手机和桌面端都能正常显示，配色以蓝白为主。\n";
+
+    @Param({"normal", "noFences", "manyFences", "unclosedFence"})
+    private String shape;
+
+    private final HtmlCodeParser htmlCodeParser = new HtmlCodeParser();
+
+    private final MultiFileCodeParser multiFileCodeParser = new MultiFileCodeParser();
+
+    private String htmlOutput;
+
+    private String multiFileOutput;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String html = ResourceUtil.readUtf8Str("stub/html-response.md");
+        String multiFile = ResourceUtil.readUtf8Str("stub/multi-file-response.md");
+        switch (shape) {
+            case "normal" -> {
+                htmlOutput = html;
+                multiFileOutput = multiFile;
+            }
+            case "noFences" -> {
+                htmlOutput = PROSE.repeat(2000);
+                multiFileOutput = htmlOutput;
+            }
+            case "manyFences" -> {
+                String fences = "```python\nprint('hello')\n```\n".repeat(1000);
+                htmlOutput = fences + html;
+                multiFileOutput = fences + multiFile;
+            }
+            case "unclosedFence" -> {
+                htmlOutput = "```html\n" + "<p>没有结束标记的代码块</p>\n".repeat(5000);
+                multiFileOutput = "```html\n<p>正常的页面</p>\n```\n```css\n" + "p { color: red; }\n".repeat(5000);
+            }
+            default -> throw new IllegalArgumentException(shape);
+        }
+    }
+
+    @Benchmark
+    public HtmlCodeResult parseHtml() {
+        return htmlCodeParser.parse(htmlOutput);
+    }
+
+    @Benchmark
+    public MultiFileCodeResult parseMultiFile() {
+        return multiFileCodeParser.parse(multiFileOutput);
+    }
+}
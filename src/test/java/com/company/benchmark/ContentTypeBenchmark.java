@@ -0,0 +1,46 @@
+package com.company.benchmark;
+
+import com.company.controller.StaticResourceController;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 静态资源 Content-Type 解析耗时，每次调用解析一个页面常见的一组路径（含大写扩展名、无扩展名和未知扩展名）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContentTypeBenchmark {
+
+    private final String[] paths = {
+            "/index.html",
+            "/style.css",
+            "/script.js",
+            "/assets/app.min.js.map",
+            "/images/Logo.PNG",
+            "/fonts/site.woff2",
+            "/data/config.json",
+            "/LICENSE",
+            "/archive.unknownext"
+    };
+
+    @Benchmark
+    public void resolveContentTypes(Blackhole blackhole) {
+        for (String path : paths) {
+            blackhole.consume(StaticResourceController.getContentTypeWithCharset(path));
+        }
+    }
+}
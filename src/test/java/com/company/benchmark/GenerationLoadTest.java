@@ -0,0 +1,245 @@
+package com.company.benchmark;
+
+import cn.hutool.core.io.FileUtil;
+import com.company.ai.AiCodeGeneratorService;
+import com.company.ai.model.enums.CodeGenTypeEnum;
+import com.company.cache.GenerationResultCache;
+import com.company.cache.StaticResourceCache;
+import com.company.constant.AppConstant;
+import com.company.controller.AppController;
+import com.company.core.AiCodeGeneratorFacade;
+import com.company.core.GenerationScheduler;
+import com.company.model.entity.App;
+import com.company.model.entity.User;
+import com.company.service.UserService;
+import com.company.service.impl.AppServiceImpl;
+import com.company.stub.StubLlmServer;
+import dev.langchain4j.http.client.jdk.JdkHttpClient;
+import dev.langchain4j.model.openai.OpenAiChatModel;
+import dev.langchain4j.model.openai.OpenAiStreamingChatModel;
+import dev.langchain4j.service.AiServices;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+
+import java.io.File;
+import java.io.Serializable;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 生成链路压测：本地模型服务桩 + 真实的模型客户端、调度、解析保存和 SSE 转换，
+ * 同时发起 N 个生成会话，统计吞吐量、首个内容事件耗时（TTFT）、完成耗时 p50/p99 和堆内存峰值。
+ * 数据库查询和登录用户由桩代替，不经过 HTTP 层。默认不运行，通过 -Dload.test=true 开启，例如：
+ * mvn test -Dtest=GenerationLoadTest -Dload.test=true -Dload.sessions=100 -Dload.tokensPerSecond=400
+ * 调度器按压测规模创建：名额默认与线上相同（load.maxConcurrent），排队上限不小于会话数（load.maxQueue），
+ * 预计等待时间默认不限制（load.queueWaitMillis），超出名额的会话排队而不是被拒绝
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "load.test", matches = "true")
+class GenerationLoadTest {
+
+    private static final String USER_ID_ATTRIBUTE = "loadTestUserId";
+
+    /**
+     * 压测使用的应用ID起点，结束后删除这些应用的生成目录
+     */
+    private static final long APP_ID_BASE = 9_000_000L;
+
+    private final int sessions = Integer.getInteger("load.sessions", 50);
+
+    private final int tokensPerSecond = Integer.getInteger("load.tokensPerSecond", 200);
+
+    private final long jitterMillis = Long.getLong("load.jitterMillis", 5);
+
+    private final double failureRate = Double.parseDouble(System.getProperty("load.failureRate", "0"));
+
+    private final double midStreamFailureRate = Double.parseDouble(System.getProperty("load.midStreamFailureRate", "0"));
+
+    private final CodeGenTypeEnum codeGenType = CodeGenTypeEnum.getEnumByValue(System.getProperty("load.type", "html"));
+
+    private final int maxConcurrent = Integer.getInteger("load.maxConcurrent", AppConstant.GENERATION_MAX_CONCURRENT);
+
+    private final int maxQueueSize = Integer.getInteger("load.maxQueue", Math.max(sessions, AppConstant.GENERATION_MAX_QUEUE_SIZE));
+
+    private final long queueWaitMillis = Long.getLong("load.queueWaitMillis", Long.MAX_VALUE);
+
+    @Test
+    void concurrentGenerationSessions() throws Exception {
+        try (StubLlmServer stub = new StubLlmServer(0)
+                .tokensPerSecond(tokensPerSecond)
+                .jitterMillis(jitterMillis)
+                .failureRate(failureRate)
+                .midStreamFailureRate(midStreamFailureRate)
+                .start()) {
+            AppController controller = createController(stub);
+            Result result = run(controller);
+            result.print(stub);
+            if (failureRate == 0 && midStreamFailureRate == 0) {
+                assertEquals(0, result.failed.get() + result.rejected.get());
+            }
+        } finally {
+            for (int i = 0; i < sessions; i++) {
+                String dirName = codeGenType.getValue() + "_" + (APP_ID_BASE + i);
+                FileUtil.del(new File(AppConstant.CODE_OUTPUT_ROOT_DIR, dirName));
+                FileUtil.del(new File(AppConstant.CODE_OUTPUT_ROOT_DIR, ".versions/" + dirName));
+            }
+        }
+    }
+
+    private Result run(AppController controller) throws InterruptedException {
+        Result result = new Result(sessions);
+        CountDownLatch done = new CountDownLatch(sessions);
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long baselineHeap = memory.getHeapMemoryUsage().getUsed();
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> result.peakHeap.accumulate(memory.getHeapMemoryUsage().getUsed()), 0, 20, TimeUnit.MILLISECONDS);
+        long start = System.nanoTime();
+        for (int i = 0; i < sessions; i++) {
+            int index = i;
+            long sessionStart = System.nanoTime();
+            // 每个会话使用不同的用户，避免触发单用户限流
+            MockHttpServletRequest request = new MockHttpServletRequest();
+            request.setAttribute(USER_ID_ATTRIBUTE, APP_ID_BASE + i);
+            Flux<ServerSentEvent<String>> events;
+            try {
+                events = controller.chatToGenCode(APP_ID_BASE + i, "做一个个人作品集网站 #" + i, null, null, null, request);
+            } catch (RuntimeException e) {
+                result.rejected.incrementAndGet();
+                done.countDown();
+                continue;
+            }
+            AtomicLong firstContentAt = new AtomicLong();
+            events.subscribe(event -> {
+                if (event.id() != null) {
+                    firstContentAt.compareAndSet(0, System.nanoTime());
+                    result.contentChars.addAndGet(event.data().length());
+                }
+            }, error -> {
+                result.failed.incrementAndGet();
+                done.countDown();
+            }, () -> {
+                long end = System.nanoTime();
+                result.ttftMillis[index] = (firstContentAt.get() - sessionStart) / 1_000_000L;
+                result.latencyMillis[index] = (end - sessionStart) / 1_000_000L;
+                result.completed.incrementAndGet();
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(10, TimeUnit.MINUTES), "压测超时");
+        result.wallMillis = (System.nanoTime() - start) / 1_000_000L;
+        sampler.shutdownNow();
+        result.baselineHeap = baselineHeap;
+        return result;
+    }
+
+    private AppController createController(StubLlmServer stub) {
+        AiCodeGeneratorService aiCodeGeneratorService = AiServices.builder(AiCodeGeneratorService.class)
+                .chatModel(OpenAiChatModel.builder().httpClientBuilder(JdkHttpClient.builder())
+                        .baseUrl(stub.getBaseUrl()).apiKey("stub").modelName("stub").build())
+                .streamingChatModel(OpenAiStreamingChatModel.builder().httpClientBuilder(JdkHttpClient.builder())
+                        .baseUrl(stub.getBaseUrl()).apiKey("stub").modelName("stub").timeout(Duration.ofMinutes(5)).build())
+                .build();
+        AiCodeGeneratorFacade facade = new AiCodeGeneratorFacade();
+        ReflectionTestUtils.setField(facade, "aiCodeGeneratorService", aiCodeGeneratorService);
+        ReflectionTestUtils.setField(facade, "staticResourceCache", new StaticResourceCache());
+        ReflectionTestUtils.setField(facade, "generationScheduler", new GenerationScheduler(maxConcurrent, maxQueueSize, queueWaitMillis));
+        // 关闭结果缓存，每个会话都真正请求模型
+        ReflectionTestUtils.setField(facade, "generationResultCache", new GenerationResultCache(false, 0, 0, 0, 0));
+
+        AppServiceImpl appService = new AppServiceImpl() {
+            @Override
+            public App getById(Serializable id) {
+                return App.builder().id((Long) id).userId((Long) id).codeGenType(codeGenType.getValue()).build();
+            }
+        };
+        ReflectionTestUtils.setField(appService, "aiCodeGeneratorFacade", facade);
+        UserService userService = (UserService) Proxy.newProxyInstance(UserService.class.getClassLoader(),
+                new Class<?>[]{UserService.class}, (proxy, method, args) -> {
+                    if (!"getLoginUser".equals(method.getName())) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    User user = new User();
+                    user.setId((Long) ((HttpServletRequest) args[0]).getAttribute(USER_ID_ATTRIBUTE));
+                    user.setUserRole("user");
+                    return user;
+                });
+
+        AppController controller = new AppController();
+        ReflectionTestUtils.setField(controller, "appService", appService);
+        ReflectionTestUtils.setField(controller, "userService", userService);
+        return controller;
+    }
+
+    private static class Result {
+
+        private final long[] ttftMillis;
+
+        private final long[] latencyMillis;
+
+        private final AtomicInteger completed = new AtomicInteger();
+
+        private final AtomicInteger failed = new AtomicInteger();
+
+        private final AtomicInteger rejected = new AtomicInteger();
+
+        private final AtomicLong contentChars = new AtomicLong();
+
+        private final LongAccumulator peakHeap = new LongAccumulator(Math::max, 0);
+
+        private long baselineHeap;
+
+        private long wallMillis;
+
+        private Result(int sessions) {
+            ttftMillis = new long[sessions];
+            latencyMillis = new long[sessions];
+            Arrays.fill(ttftMillis, -1);
+            Arrays.fill(latencyMillis, -1);
+        }
+
+        private void print(StubLlmServer stub) {
+            long[] ttft = Arrays.stream(ttftMillis).filter(value -> value >= 0).sorted().toArray();
+            long[] latency = Arrays.stream(latencyMillis).filter(value -> value >= 0).sorted().toArray();
+            double seconds = wallMillis / 1000.0;
+            log.info("""
+                            ===== 生成链路压测 =====
+                            会话：完成 %d，失败 %d，拒绝 %d（模型请求 %d，注入失败 %d）
+                            总耗时：%.2f s，吞吐量：%.2f 会话/s，%.0f 字符/s
+                            TTFT：p50 %d ms，p99 %d ms
+                            完成耗时：p50 %d ms，p99 %d ms
+                            堆内存：基线 %d MB，峰值 %d MB""".formatted(
+                    completed.get(), failed.get(), rejected.get(), stub.getRequestCount(), stub.getFailureCount(),
+                    seconds, completed.get() / seconds, contentChars.get() / seconds,
+                    percentile(ttft, 0.5), percentile(ttft, 0.99),
+                    percentile(latency, 0.5), percentile(latency, 0.99),
+                    baselineHeap / 1024 / 1024, peakHeap.get() / 1024 / 1024));
+        }
+
+        private static long percentile(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return -1;
+            }
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+        }
+    }
+}
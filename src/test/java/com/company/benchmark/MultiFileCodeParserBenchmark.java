@@ -0,0 +1,80 @@
+package com.company.benchmark;
+
+import com.company.ai.model.MultiFileCodeResult;
+import com.company.core.parser.MultiFileCodeParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 多文件输出解析耗时随输出大小的变化：一次扫描的 MultiFileCodeParser 对比原来的三个正则分别查找
+ * 输出从 100KB 到 1MB，耗时除以 sizeKb 基本不变即为线性；
+ * unclosedFence 的最后一个 js 代码块没有结束标记，正则会把剩余内容整段扫描后匹配失败，结果中缺少 js
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MultiFileCodeParserBenchmark {
+
+    private static final Pattern HTML_CODE_PATTERN = Pattern.compile("```html\\s*\\n([\\s\\S]*?)```", Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern CSS_CODE_PATTERN = Pattern.compile("```css\\s*\\n([\\s\\S]*?)```", Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern JS_CODE_PATTERN = Pattern.compile("```(?:js|javascript)\\s*\\n([\\s\\S]*?)```", Pattern.CASE_INSENSITIVE);
+
+    @Param({"100", "300", "1000"})
+    private int sizeKb;
+
+    @Param({"fenced", "unclosedFence"})
+    private String shape;
+
+    private final MultiFileCodeParser parser = new MultiFileCodeParser();
+
+    private String output;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // 三个代码块各占约三分之一
+        int lines = sizeKb * 1024 / 3 / 40;
+        String html = "    <div class=\"card\">卡片内容 content</div>\n".repeat(lines);
+        String css = ".card { margin: 8px; padding: 16px; }  \n".repeat(lines);
+        String js = "document.querySelectorAll('.card');    \n".repeat(lines);
+        output = "我来为你生成页面：\n```html\n" + html + "```\n```css\n" + css + "```\n```javascript\n" + js
+                + ("fenced".equals(shape) ? "```\n文件创建完成！\n" : "");
+    }
+
+    @Benchmark
+    public MultiFileCodeResult singleScan() {
+        return parser.parse(output);
+    }
+
+    @Benchmark
+    public MultiFileCodeResult regex() {
+        MultiFileCodeResult result = new MultiFileCodeResult();
+        result.setHtmlCode(extract(output, HTML_CODE_PATTERN));
+        result.setCssCode(extract(output, CSS_CODE_PATTERN));
+        result.setJsCode(extract(output, JS_CODE_PATTERN));
+        return result;
+    }
+
+    private static String extract(String content, Pattern pattern) {
+        Matcher matcher = pattern.matcher(content);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+}
@@ -0,0 +1,50 @@
+package com.company.benchmark;
+
+import com.company.auth.Pbkdf2PasswordHasher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 不同迭代次数下一次密码校验的耗时分布，用于选择 password.hash.iterations
+ * 结果中的 p0.99 是单次校验的 CPU 时间；登录高峰时还要加上排队时间，
+ * 约为 (排队数 / password.hash.threads) × 单次耗时，按登录延迟预算反推可接受的迭代次数。
+ * 在部署机器上运行：mvn -Pjmh test-compile exec:exec -Djmh.include=PasswordHasherBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class PasswordHasherBenchmark {
+
+    @Param({"100000", "210000", "310000", "600000"})
+    private int iterations;
+
+    private Pbkdf2PasswordHasher hasher;
+
+    private String stored;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        hasher = new Pbkdf2PasswordHasher(iterations);
+        stored = hasher.hash("12345678");
+    }
+
+    @Benchmark
+    public boolean verify() {
+        return hasher.matches("12345678", stored);
+    }
+}
@@ -0,0 +1,99 @@
+package com.company.benchmark;
+
+import cn.hutool.json.JSONUtil;
+import com.company.common.SseEnvelopeEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SSE 内容事件编码耗时：JSONUtil.toJsonStr(Map.of("d", chunk)) 对比 SseEnvelopeEncoder
+ * 内容是一次生成的完整输出（中文说明 + 带引号、换行的 HTML），按 token 大小切分或按合并后的大小切分；
+ * 加 -prof gc 可以看到每次编码的分配字节数
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SseEnvelopeBenchmark {
+
+    private static final String PAGE = """
+            我来为你创建一个个人介绍页面，包含头像、简介和联系方式：
+            ```html
+            <!DOCTYPE html>
+            <html lang="zh-CN">
+            <head>
+                <meta charset="UTF-8">
+                <title>个人主页 - 张三</title>
+                <link rel="stylesheet" href="style.css">
+            </head>
+            <body>
+                <header class="hero">
+                    <h1 class="title">你好，我是"张三"</h1>
+                    <p>一名热爱前端开发的工程师，专注于用户体验与性能优化。</p>
+                </header>
+                <section id="contact">
+                    <a href="mailto:zhangsan@example.com">联系我</a>
+                </section>
+                <script>document.querySelector('.title').addEventListener('click', () => alert("欢迎\\t访问"));</script>
+            </body>
+            </html>
+            ```
+            页面使用了语义化标签，样式文件中定义了响应式布局。
+            """;
+
+    /**
+     * 每段内容的平均字符数：4 约等于模型逐 token 输出，2048 为合并后的推送大小
+     */
+    @Param({"4", "2048"})
+    private int chunkChars;
+
+    private String[] chunks;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String text = PAGE.repeat(Math.max(1, chunkChars * 64 / PAGE.length()));
+        Random random = new Random(42);
+        List<String> list = new ArrayList<>();
+        int position = 0;
+        while (position < text.length()) {
+            int size = chunkChars <= 4 ? 1 + random.nextInt(chunkChars * 2 - 1) : chunkChars;
+            int end = Math.min(text.length(), position + size);
+            list.add(text.substring(position, end));
+            position = end;
+        }
+        chunks = list.toArray(new String[0]);
+    }
+
+    @Benchmark
+    public void jsonUtil(Blackhole blackhole) {
+        for (String chunk : chunks) {
+            blackhole.consume(JSONUtil.toJsonStr(Map.of("d", chunk)));
+        }
+    }
+
+    @Benchmark
+    public void envelopeEncoder(Blackhole blackhole) {
+        for (String chunk : chunks) {
+            blackhole.consume(SseEnvelopeEncoder.encode(chunk));
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.company.benchmark;
+
+import cn.hutool.core.io.FileUtil;
+import com.company.cache.StaticResourceCache;
+import com.company.constant.AppConstant;
+import com.company.controller.StaticResourceController;
+import com.company.core.storage.DirectoryCodeStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 静态资源访问吞吐量（每秒请求数）
+ * cached=false 相当于引入缓存之前每次读磁盘的路径，conditional=true 模拟浏览器带 If-None-Match 重新验证
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class StaticResourceBenchmark {
+
+    private static final String DEPLOY_KEY = "benchmark_static";
+
+    @Param({"false", "true"})
+    private boolean cached;
+
+    @Param({"false", "true"})
+    private boolean conditional;
+
+    private StaticResourceController controller;
+
+    private String etag;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        File dir = new File(AppConstant.CODE_OUTPUT_ROOT_DIR, DEPLOY_KEY);
+        // 约 20KB 的页面，接近一次多文件生成的 index.html 大小
+        FileUtil.writeString("<p>生成的页面内容 generated content</p>\n".repeat(500),
+                new File(dir, "index.html"), StandardCharsets.UTF_8);
+        controller = new StaticResourceController();
+        // 不缓存时每次请求都从磁盘读取
+        StaticResourceCache cache = cached ? new StaticResourceCache() : new StaticResourceCache(0, 0, 1024 * 1024);
+        ReflectionTestUtils.setField(controller, "staticResourceCache", cache);
+        ReflectionTestUtils.setField(controller, "codeStorage", new DirectoryCodeStorage());
+        etag = controller.serveStaticResource(DEPLOY_KEY, newRequest(null), new MockHttpServletResponse()).getHeaders().getETag();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        FileUtil.del(new File(AppConstant.CODE_OUTPUT_ROOT_DIR, DEPLOY_KEY));
+    }
+
+    @Benchmark
+    public long serveIndex() throws IOException {
+        ResponseEntity<Resource> response = controller.serveStaticResource(DEPLOY_KEY, newRequest(conditional ? etag : null),
+                new MockHttpServletResponse());
+        Resource body = response.getBody();
+        if (body == null) {
+            return response.getStatusCode().value();
+        }
+        // 读完响应体，模拟写回客户端
+        try (InputStream inputStream = body.getInputStream()) {
+            return inputStream.transferTo(OutputStreamSink.INSTANCE);
+        }
+    }
+
+    private static MockHttpServletRequest newRequest(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/static/" + DEPLOY_KEY + "/index.html");
+        request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "/static/" + DEPLOY_KEY + "/index.html");
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return request;
+    }
+
+    /**
+     * 丢弃写入内容的输出流
+     */
+    private static class OutputStreamSink extends java.io.OutputStream {
+
+        private static final OutputStreamSink INSTANCE = new OutputStreamSink();
+
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.company.cache;
+
+import com.company.ai.model.enums.CodeGenTypeEnum;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenerationResultCacheTest {
+
+    private static final long TTL = 60 * 60 * 1000L;
+
+    @Test
+    void exactMatchIgnoresCaseWhitespaceAndTrailingPunctuation() {
+        GenerationResultCache cache = new GenerationResultCache(true, 0, TTL, 16, 1024 * 1024);
+        cache.put("做一个  个人博客。", CodeGenTypeEnum.HTML, "```html\n<p>blog</p>\n```");
+
+        assertEquals("```html\n<p>blog</p>\n```", cache.get("做一个 个人博客", CodeGenTypeEnum.HTML));
+        assertEquals("```html\n<p>blog</p>\n```", cache.get(" 做一个 个人博客！", CodeGenTypeEnum.HTML));
+        // 不同生成类型分开缓存
+        assertNull(cache.get("做一个 个人博客", CodeGenTypeEnum.MULTI_FILE));
+        assertEquals(2, cache.getExactHitCount());
+    }
+
+    @Test
+    void similarPromptHitsOnlyWhenEnabled() {
+        GenerationResultCache exact = new GenerationResultCache(true, 0, TTL, 16, 1024 * 1024);
+        GenerationResultCache similar = new GenerationResultCache(true, 0.8, TTL, 16, 1024 * 1024);
+        for (GenerationResultCache cache : new GenerationResultCache[]{exact, similar}) {
+            cache.put("make a todo list app with dark theme", CodeGenTypeEnum.HTML, "todo");
+        }
+
+        assertNull(exact.get("make a todo list app with a dark theme", CodeGenTypeEnum.HTML));
+        assertEquals("todo", similar.get("make a todo list app with a dark theme", CodeGenTypeEnum.HTML));
+        assertNull(similar.get("make a weather dashboard with charts", CodeGenTypeEnum.HTML));
+        assertEquals(1, similar.getSimilarHitCount());
+    }
+
+    @Test
+    void evictLeastRecentlyUsedWhenFull() {
+        GenerationResultCache cache = new GenerationResultCache(true, 0, TTL, 2, 1024 * 1024);
+        cache.put("a", CodeGenTypeEnum.HTML, "1");
+        cache.put("b", CodeGenTypeEnum.HTML, "2");
+        cache.get("a", CodeGenTypeEnum.HTML);
+        cache.put("c", CodeGenTypeEnum.HTML, "3");
+
+        assertEquals("1", cache.get("a", CodeGenTypeEnum.HTML));
+        assertNull(cache.get("b", CodeGenTypeEnum.HTML));
+    }
+
+    @Test
+    void replayKeepsContentAndSurrogatePairs() {
+        String output = "x".repeat(255) + "😀" + "y".repeat(300);
+
+        java.util.List<String> chunks = GenerationResultCache.replay(output).collectList().block();
+
+        assertEquals(output, String.join("", chunks));
+        assertEquals(255, chunks.get(0).length());
+    }
+}
@@ -0,0 +1,69 @@
+package com.company.cache;
+
+import com.company.model.entity.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginUserCacheTest {
+
+    private static final long TTL = 60 * 1000L;
+
+    @Test
+    void loadOnceUntilInvalidated() {
+        LoginUserCache cache = new LoginUserCache(16, TTL);
+        AtomicInteger loads = new AtomicInteger();
+        User stored = User.builder().id(1L).userName("张三").userRole("user").build();
+
+        for (int i = 0; i < 3; i++) {
+            User user = cache.get(1L, id -> {
+                loads.incrementAndGet();
+                return stored;
+            });
+            assertEquals("张三", user.getUserName());
+            // 返回副本，修改不影响缓存
+            user.setUserName("李四");
+        }
+        assertEquals(1, loads.get());
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+
+        cache.invalidate(1L);
+        stored.setUserName("王五");
+        assertEquals("王五", cache.get(1L, id -> {
+            loads.incrementAndGet();
+            return stored;
+        }).getUserName());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void skipStaleLoadAndMissingUser() {
+        LoginUserCache cache = new LoginUserCache(16, TTL);
+        // 查询期间用户被修改，查到的旧数据不放入缓存
+        cache.get(1L, id -> {
+            cache.invalidate(1L);
+            return User.builder().id(1L).userName("旧名字").build();
+        });
+        assertEquals(0, cache.size());
+        assertNull(cache.get(2L, id -> null));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void evictLeastRecentlyUsedAndDisableWithZeroTtl() {
+        LoginUserCache cache = new LoginUserCache(2, TTL);
+        for (long i = 1; i <= 3; i++) {
+            cache.get(i, id -> User.builder().id(id).build());
+        }
+        assertEquals(2, cache.size());
+
+        LoginUserCache disabled = new LoginUserCache(2, 0);
+        disabled.get(1L, id -> User.builder().id(id).build());
+        disabled.get(1L, id -> User.builder().id(id).build());
+        assertEquals(0, disabled.size());
+        assertEquals(2, disabled.getMissCount());
+    }
+}
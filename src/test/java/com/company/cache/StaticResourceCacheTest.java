@@ -0,0 +1,81 @@
+package com.company.cache;
+
+import com.company.core.storage.StoredFile;
+import org.junit.jupiter.api.Test;
+
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StaticResourceCacheTest {
+
+    private static final String CONTENT_TYPE = "text/html; charset=UTF-8";
+
+    @Test
+    void missingFilesDoNotEvictCachedFiles() {
+        StaticResourceCache cache = new StaticResourceCache(4, 1024 * 1024, 1024);
+        AtomicInteger loads = new AtomicInteger();
+        cache.get("html_1", "/index.html", CONTENT_TYPE, () -> {
+            loads.incrementAndGet();
+            return new BytesFile("<h1>hi</h1>");
+        });
+
+        // 大量探测不存在的文件
+        for (int i = 0; i < 100; i++) {
+            assertNull(cache.get("html_1", "/missing" + i + ".js", CONTENT_TYPE, () -> null));
+        }
+
+        assertNotNull(cache.get("html_1", "/index.html", CONTENT_TYPE, () -> {
+            loads.incrementAndGet();
+            return new BytesFile("<h1>hi</h1>");
+        }));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void rememberMissingFileUntilInvalidated() {
+        StaticResourceCache cache = new StaticResourceCache();
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            assertNull(cache.get("html_1", "/index.html.gz", CONTENT_TYPE, () -> {
+                loads.incrementAndGet();
+                return null;
+            }));
+        }
+        assertEquals(1, loads.get());
+
+        // 重新生成后副本出现
+        cache.invalidate("html_1");
+        assertNotNull(cache.get("html_1", "/index.html.gz", CONTENT_TYPE, () -> {
+            loads.incrementAndGet();
+            return new BytesFile("gz");
+        }));
+        assertEquals(2, loads.get());
+    }
+
+    private record BytesFile(String content) implements StoredFile {
+
+        @Override
+        public long length() {
+            return content.getBytes(StandardCharsets.UTF_8).length;
+        }
+
+        @Override
+        public long lastModified() {
+            return 0;
+        }
+
+        @Override
+        public byte[] readAllBytes() {
+            return content.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void transferTo(long position, long count, WritableByteChannel target) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
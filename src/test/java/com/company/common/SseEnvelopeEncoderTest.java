@@ -0,0 +1,38 @@
+package com.company.common;
+
+import cn.hutool.json.JSONUtil;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SseEnvelopeEncoderTest {
+
+    @Test
+    void encodeSameAsJsonUtil() {
+        String content = "<div class=\"title\">你好，世界</div>\n\t<script>alert('a\\b');</script>\r\u0001\u2028";
+
+        String encoded = SseEnvelopeEncoder.encode(content);
+
+        assertEquals(content, JSONUtil.parseObj(encoded).getStr("d"));
+        assertEquals(JSONUtil.parseObj(JSONUtil.toJsonStr(Map.of("d", content))), JSONUtil.parseObj(encoded));
+    }
+
+    @Test
+    void encodePlainText() {
+        assertEquals("{\"d\":\"hello 世界\"}", SseEnvelopeEncoder.encode("hello 世界"));
+        assertEquals("{\"d\":\"\"}", SseEnvelopeEncoder.encode(""));
+    }
+
+    @Test
+    void encodeLongContentWithManyEscapes() {
+        String content = "\"\n\u0002中".repeat(5000);
+
+        String encoded = SseEnvelopeEncoder.encode(content);
+
+        assertEquals(content, JSONUtil.parseObj(encoded).getStr("d"));
+        // 缓冲区复用后结果不受上一次内容影响
+        assertEquals("{\"d\":\"a\"}", SseEnvelopeEncoder.encode("a"));
+    }
+}
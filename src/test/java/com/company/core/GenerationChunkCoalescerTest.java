@@ -0,0 +1,82 @@
+package com.company.core;
+
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenerationChunkCoalescerTest {
+
+    @Test
+    void mergeBySize() {
+        Flux<GenerationChunk> source = Flux.range(1, 10).map(i -> GenerationChunk.of(i, "ab"));
+
+        List<GenerationChunk> merged = GenerationChunkCoalescer.coalesce(source, 6, Duration.ofSeconds(10)).collectList().block();
+
+        assertEquals(List.of("ababab", "ababab", "ababab", "ab"), merged.stream().map(GenerationChunk::getContent).toList());
+        assertEquals(List.of(3L, 6L, 9L, 10L), merged.stream().map(GenerationChunk::getSeq).toList());
+    }
+
+    @Test
+    void mergeByTimeWindow() {
+        Flux<GenerationChunk> source = Flux.concat(
+                Flux.just(GenerationChunk.of(1, "a"), GenerationChunk.of(2, "b")),
+                Flux.just(GenerationChunk.of(3, "c")).delaySubscription(Duration.ofMillis(200)));
+
+        List<GenerationChunk> merged = GenerationChunkCoalescer.coalesce(source, 1024, Duration.ofMillis(20)).collectList().block();
+
+        assertEquals(List.of("ab", "c"), merged.stream().map(GenerationChunk::getContent).toList());
+        assertEquals(List.of(2L, 3L), merged.stream().map(GenerationChunk::getSeq).toList());
+    }
+
+    @Test
+    void flushBeforeResync() {
+        Flux<GenerationChunk> source = Flux.just(GenerationChunk.of(1, "a"), GenerationChunk.resync(2), GenerationChunk.of(5, "b"));
+
+        List<GenerationChunk> merged = GenerationChunkCoalescer.coalesce(source, 1024, Duration.ofSeconds(10)).collectList().block();
+
+        assertEquals(3, merged.size());
+        assertEquals("a", merged.get(0).getContent());
+        assertTrue(merged.get(1).isResync());
+        assertEquals("b", merged.get(2).getContent());
+    }
+
+    @Test
+    void readUpstreamOnlyOnDemand() {
+        AtomicInteger produced = new AtomicInteger();
+        Flux<GenerationChunk> source = Flux.range(1, 10_000).map(i -> GenerationChunk.of(i, "ab")).doOnNext(chunk -> produced.incrementAndGet());
+        List<GenerationChunk> received = new ArrayList<>();
+
+        GenerationChunkCoalescer.coalesce(source, 6, Duration.ofSeconds(10)).subscribe(new BaseSubscriber<>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                request(2);
+            }
+
+            @Override
+            protected void hookOnNext(GenerationChunk chunk) {
+                received.add(chunk);
+            }
+        });
+
+        // 下游只要两批，上游只读取这两批需要的段
+        assertEquals(2, received.size());
+        assertEquals(6, produced.get());
+    }
+
+    @Test
+    void passThroughWhenDisabled() {
+        Flux<GenerationChunk> source = Flux.just(GenerationChunk.of(1, "a"), GenerationChunk.of(2, "b"));
+
+        List<GenerationChunk> merged = GenerationChunkCoalescer.coalesce(source, 1024, Duration.ZERO).collectList().block();
+
+        assertEquals(2, merged.size());
+    }
+}
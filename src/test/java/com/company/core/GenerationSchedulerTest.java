@@ -0,0 +1,126 @@
+package com.company.core;
+
+import com.company.exception.BusinessException;
+import com.company.exception.ErrorCode;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenerationSchedulerTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void queueWhenFullAndStartNextOnRelease() {
+        GenerationScheduler scheduler = new GenerationScheduler(1, 10, 10, 1000, 10 * 60 * 1000L, clock::get);
+        RecordingTask first = new RecordingTask("a1");
+        RecordingTask second = new RecordingTask("b1");
+        scheduler.submit(1L, 1, first);
+        scheduler.submit(2L, 1, second);
+
+        assertNotNull(first.ticket);
+        assertNull(second.ticket);
+        assertEquals(1, second.position);
+
+        first.ticket.release();
+        first.ticket.release();
+
+        assertNotNull(second.ticket);
+        assertEquals(1, scheduler.getRunningCount());
+        assertEquals(0, scheduler.getQueuedCount());
+    }
+
+    @Test
+    void interleaveUsersInsteadOfFirstComeFirstServed() {
+        GenerationScheduler scheduler = new GenerationScheduler(1, 10, 10, 1000, 10 * 60 * 1000L, clock::get);
+        List<String> started = new ArrayList<>();
+        RecordingTask running = new RecordingTask("running", started);
+        scheduler.submit(9L, 1, running);
+        Map<String, RecordingTask> tasks = new HashMap<>();
+        for (String name : List.of("a1", "a2", "a3")) {
+            tasks.put(name, new RecordingTask(name, started));
+            scheduler.submit(1L, 1, tasks.get(name));
+        }
+        tasks.put("b1", new RecordingTask("b1", started));
+        scheduler.submit(2L, 1, tasks.get("b1"));
+
+        // 后到的用户 b 排在用户 a 的第二个任务之前
+        assertEquals(2, tasks.get("b1").position);
+        assertEquals(3, tasks.get("a2").position);
+
+        running.ticket.release();
+        for (int i = 0; i < 4; i++) {
+            tasks.get(started.get(started.size() - 1)).ticket.release();
+        }
+        assertEquals(List.of("running", "a1", "b1", "a2", "a3"), started);
+    }
+
+    @Test
+    void rejectBurstAndRefillTokensOverTime() {
+        GenerationScheduler scheduler = new GenerationScheduler(10, 10, 2, 1000, 10 * 60 * 1000L, clock::get);
+        scheduler.submit(1L, 1, new RecordingTask("a1"));
+        scheduler.submit(1L, 1, new RecordingTask("a2"));
+
+        BusinessException e = assertThrows(BusinessException.class, () -> scheduler.submit(1L, 1, new RecordingTask("a3")));
+        assertEquals(ErrorCode.TOO_MANY_REQUEST.getCode(), e.getCode());
+        // 其他用户不受影响
+        scheduler.submit(2L, 1, new RecordingTask("b1"));
+
+        clock.addAndGet(1000 * 1_000_000L);
+        scheduler.submit(1L, 1, new RecordingTask("a3"));
+        assertEquals(1, scheduler.getRejectedCount());
+    }
+
+    @Test
+    void rejectWhenEstimatedWaitExceedsSlo() {
+        // 没有执行记录时按每次 60 秒估算，只允许排第一轮
+        GenerationScheduler scheduler = new GenerationScheduler(1, 10, 10, 1000, 60 * 1000L, clock::get);
+        scheduler.submit(1L, 1, new RecordingTask("a1"));
+        scheduler.submit(2L, 1, new RecordingTask("b1"));
+
+        assertThrows(BusinessException.class, () -> scheduler.submit(3L, 1, new RecordingTask("c1")));
+        assertEquals(1, scheduler.getQueuedCount());
+    }
+
+    private static class RecordingTask implements GenerationScheduler.Task {
+
+        private final String name;
+
+        private final List<String> started;
+
+        private GenerationScheduler.Ticket ticket;
+
+        private int position;
+
+        private long version;
+
+        private RecordingTask(String name) {
+            this(name, new ArrayList<>());
+        }
+
+        private RecordingTask(String name, List<String> started) {
+            this.name = name;
+            this.started = started;
+        }
+
+        @Override
+        public void onQueued(long version, int position) {
+            if (version > this.version) {
+                this.version = version;
+                this.position = position;
+            }
+        }
+
+        @Override
+        public void start(GenerationScheduler.Ticket ticket) {
+            this.ticket = ticket;
+            started.add(name);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.company.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenerationSessionTest {
+
+    @Test
+    void replayMissingChunksAfterLastEventId() {
+        GenerationSession session = new GenerationSession("html:1", 16);
+        session.emit("a");
+        session.emit("b");
+        session.emit("c");
+        session.complete();
+
+        List<GenerationChunk> chunks = session.stream(1).collectList().block();
+
+        assertEquals(List.of(2L, 3L), chunks.stream().map(GenerationChunk::getSeq).toList());
+        assertEquals("b", chunks.get(0).getContent());
+    }
+
+    @Test
+    void sendResyncWhenChunksWereEvicted() {
+        GenerationSession session = new GenerationSession("html:1", 2);
+        for (String content : List.of("a", "b", "c", "d")) {
+            session.emit(content);
+        }
+        session.complete();
+
+        List<GenerationChunk> chunks = session.stream(1).collectList().block();
+
+        assertTrue(chunks.get(0).isResync());
+        assertEquals(2L, chunks.get(0).getSeq());
+        assertEquals(List.of("c", "d"), chunks.subList(1, 3).stream().map(GenerationChunk::getContent).toList());
+    }
+
+    @Test
+    void liveSubscriberReceivesNewChunks() {
+        GenerationSession session = new GenerationSession("html:1", 16);
+        session.emit("a");
+        List<String> received = new ArrayList<>();
+        session.stream(0).subscribe(chunk -> received.add(chunk.getContent()));
+        session.emit("b");
+        session.complete();
+
+        assertEquals(List.of("a", "b"), received);
+        assertTrue(session.isCompleted());
+        assertFalse(session.isExpired(60_000));
+    }
+
+    @Test
+    void sendLatestQueuePositionBeforeContent() {
+        GenerationSession session = new GenerationSession("html:1", 16);
+        session.queued(1, 3);
+        session.queued(3, 1);
+        session.queued(2, 2);
+        List<GenerationChunk> received = new ArrayList<>();
+        session.stream(0).subscribe(received::add);
+        session.dispatched();
+        session.emit("a");
+        session.complete();
+
+        assertEquals(2, received.size());
+        assertEquals(1, received.get(0).getQueuePosition());
+        assertEquals("a", received.get(1).getContent());
+        // 开始生成后订阅不再收到排队提示
+        assertEquals(List.of("a"), session.stream(0).map(GenerationChunk::getContent).collectList().block());
+    }
+}
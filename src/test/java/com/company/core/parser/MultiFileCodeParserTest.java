@@ -0,0 +1,53 @@
+package com.company.core.parser;
+
+import com.company.ai.model.MultiFileCodeResult;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MultiFileCodeParserTest {
+
+    private final MultiFileCodeParser parser = new MultiFileCodeParser();
+
+    @Test
+    void collectBlocksByLanguageTag() {
+        MultiFileCodeResult result = parser.parse("""
+                说明文字
+                ```HTML
+                <h1>标题</h1>
+                ```
+                ```python
+                print('ignored')
+                ```
+                ```javascript
+                let a = 1;
+                ```
+                ```css
+                h1 { color: red; }
+                ```
+                ```js
+                let b = 2;
+                ```
+                """);
+        assertEquals("<h1>标题</h1>\n", result.getHtmlCode());
+        assertEquals("h1 { color: red; }\n", result.getCssCode());
+        // 同语言只保留第一个代码块
+        assertEquals("let a = 1;\n", result.getJsCode());
+    }
+
+    @Test
+    void closeUnterminatedFinalFence() {
+        MultiFileCodeResult result = parser.parse("```html\n<p>页面</p>\n```\n```js\nconsole.log('未结束');\n");
+        assertEquals("<p>页面</p>\n", result.getHtmlCode());
+        assertEquals("console.log('未结束');\n", result.getJsCode());
+        assertNull(result.getCssCode());
+    }
+
+    @Test
+    void returnEmptyResultWithoutFences() {
+        MultiFileCodeResult result = parser.parse("没有代码块的回复 `inline` ``两个反引号``\n".repeat(1000));
+        assertNull(result.getHtmlCode());
+        assertNull(result.getCssCode());
+        assertNull(result.getJsCode());
+    }
+}
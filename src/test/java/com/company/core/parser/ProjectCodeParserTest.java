@@ -0,0 +1,93 @@
+package com.company.core.parser;
+
+import com.company.ai.model.ProjectCodeResult;
+import com.company.ai.model.ProjectFile;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProjectCodeParserTest {
+
+    private final ProjectCodeParser parser = new ProjectCodeParser();
+
+    @Test
+    void collectFilesByFenceHeader() {
+        ProjectCodeResult result = parser.parse("""
+                项目结构如下：
+                ```html index.html
+                <script type="module" src="src/main.js"></script>
+                ```
+                ```javascript src/components/header.js
+                export const header = 1;
+                ```
+                ```js path="src/main.js"
+                import { header } from './components/header.js';
+                ```
+                ```css/main.css
+                body { margin: 0; }
+                ```
+                ```assets/logo.svg
+                <svg></svg>
+                ```
+                ```json assets/data.json
+                {"a": 1}
+                """);
+        List<String> paths = result.getFiles().stream().map(ProjectFile::getPath).toList();
+        assertEquals(List.of("index.html", "src/components/header.js", "src/main.js", "css/main.css",
+                "assets/logo.svg", "assets/data.json"), paths);
+        Map<String, String> files = toMap(result);
+        assertEquals("export const header = 1;\n", files.get("src/components/header.js"));
+        // 只写路径时语言取扩展名
+        assertEquals("body { margin: 0; }\n", files.get("css/main.css"));
+        // 未闭合的最后一个代码块在末尾闭合
+        assertEquals("{\"a\": 1}\n", files.get("assets/data.json"));
+    }
+
+    @Test
+    void dropUnsafePaths() {
+        ProjectCodeResult result = parser.parse("""
+                ```html index.html
+                <h1>首页</h1>
+                ```
+                ```js ../escape.js
+                ```
+                ```js /etc/passwd.js
+                ```
+                ```js src/../../escape.js
+                ```
+                ```css .text
+                ```
+                ```css C:/style.css
+                ```
+                ```js src\\utils\\format.js
+                export {};
+                ```
+                """);
+        assertEquals(List.of("index.html", "src/utils/format.js"), result.getFiles().stream().map(ProjectFile::getPath).toList());
+    }
+
+    @Test
+    void useDefaultNamesForBlocksWithoutPath() {
+        ProjectCodeResult result = parser.parse("```html\n<h1>首页</h1>\n```\n```css\nh1 {}\n```\n```python\nprint(1)\n```\n");
+        Map<String, String> files = toMap(result);
+        assertEquals(Map.of("index.html", "<h1>首页</h1>\n", "style.css", "h1 {}\n"), files);
+    }
+
+    @Test
+    void normalizePath() {
+        assertEquals("src/main.js", ProjectFilePath.normalize("./src/main.js"));
+        assertEquals("src/main.js", ProjectFilePath.normalize("src\\main.js"));
+        assertNull(ProjectFilePath.normalize("src//main.js"));
+        assertNull(ProjectFilePath.normalize("src/./main.js"));
+        assertNull(ProjectFilePath.normalize(".versions/index.html"));
+        assertNull(ProjectFilePath.normalize("a/b/c/d/e/f/g/h/i.js"));
+    }
+
+    private static Map<String, String> toMap(ProjectCodeResult result) {
+        return result.getFiles().stream().collect(Collectors.toMap(ProjectFile::getPath, ProjectFile::getContent));
+    }
+}
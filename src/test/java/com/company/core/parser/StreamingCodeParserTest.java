@@ -0,0 +1,99 @@
+package com.company.core.parser;
+
+import com.company.ai.model.HtmlCodeResult;
+import com.company.ai.model.MultiFileCodeResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingCodeParserTest {
+
+    private static final String MULTI_FILE_CONTENT = """
+            创建一个完整的网页：
+            ```html
+            <!DOCTYPE html>
+            <html>
+            <body>
+                <h1>欢迎使用 `code`</h1>
+                <script src="script.js"></script>
+            </body>
+            </html>
+            ```
+            ```css
+            h1 {
+                color: blue;
+            }
+            ```
+            ```javascript
+            console.log(`页面加载完成`);
+            ```
+
+            文件创建完成！
+            """;
+
+    @Test
+    void parseMultiFileCodeInAnyChunkSize() {
+        MultiFileCodeResult expected = new MultiFileCodeParser().parse(MULTI_FILE_CONTENT);
+        for (int size = 1; size <= 8; size++) {
+            CodeBlockCollector collector = feedInChunks(MULTI_FILE_CONTENT, size);
+            MultiFileCodeResult result = new MultiFileCodeParser().parse(collector);
+            assertEquals(expected.getHtmlCode(), result.getHtmlCode());
+            assertEquals(expected.getCssCode(), result.getCssCode());
+            assertEquals(expected.getJsCode(), result.getJsCode());
+        }
+    }
+
+    @Test
+    void parseHtmlWithoutFence() {
+        String content = "<html><body>Hello</body></html>\n";
+        CodeBlockCollector collector = feedInChunks(content, 3);
+        HtmlCodeResult result = new HtmlCodeParser().parse(collector);
+        assertEquals("<html><body>Hello</body></html>", result.getHtmlCode());
+    }
+
+    @Test
+    void closeUnterminatedBlockOnFinish() {
+        CodeBlockCollector collector = feedInChunks("```css\nbody { margin: 0; }\n``", 4);
+        assertEquals("body { margin: 0; }\n``", collector.getBlock("css"));
+    }
+
+    @Test
+    void emitEventsInOrder() {
+        List<String> events = new ArrayList<>();
+        StreamingCodeParser parser = new StreamingCodeParser(new CodeBlockListener() {
+            @Override
+            public void onBlockStart(String language) {
+                events.add("start:" + language);
+            }
+
+            @Override
+            public void onBlockContent(String language, String content) {
+                events.add("content:" + content);
+            }
+
+            @Override
+            public void onBlockEnd(String language) {
+                events.add("end:" + language);
+            }
+        });
+        parser.feed("说明``");
+        parser.feed("`JS\na");
+        parser.feed("=1;`");
+        parser.feed("``尾部");
+        parser.finish();
+        assertEquals(List.of("start:js", "content:a", "content:=1;", "end:js"), events);
+    }
+
+    private static CodeBlockCollector feedInChunks(String content, int size) {
+        CodeBlockCollector collector = new CodeBlockCollector();
+        StreamingCodeParser parser = new StreamingCodeParser(collector);
+        for (int i = 0; i < content.length(); i += size) {
+            parser.feed(content.substring(i, Math.min(content.length(), i + size)));
+        }
+        parser.finish();
+        return collector;
+    }
+}
@@ -0,0 +1,54 @@
+package com.company.core.saver;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CodeFileWriterTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void writeNestedFilesAndSkipBlank() throws IOException {
+        Map<String, String> files = new LinkedHashMap<>();
+        files.put("index.html", "<h1>首页</h1>");
+        files.put("src/utils/format.js", "export const a = 1;");
+        files.put("empty.css", "  \n");
+        CodeFileWriter.writeAll(dir, files, true);
+
+        assertEquals("<h1>首页</h1>", Files.readString(dir.resolve("index.html"), StandardCharsets.UTF_8));
+        assertEquals("export const a = 1;", Files.readString(dir.resolve("src/utils/format.js"), StandardCharsets.UTF_8));
+        assertFalse(Files.exists(dir.resolve("empty.css")));
+    }
+
+    @Test
+    void overwriteExistingFileWithoutFsync() throws IOException {
+        Files.writeString(dir.resolve("index.html"), "很长的旧内容很长的旧内容");
+        CodeFileWriter.writeAll(dir, Map.of("index.html", "新内容"), false);
+
+        assertEquals("新内容", Files.readString(dir.resolve("index.html"), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void writeManyFilesThenSyncTree() throws IOException {
+        Map<String, String> files = new LinkedHashMap<>();
+        for (int i = 0; i < 100; i++) {
+            files.put("pages/" + (i % 10) + "/page" + i + ".html", "<p>" + i + "</p>");
+        }
+        CodeFileWriter.writeAll(dir, files, false);
+        CodeFileWriter.syncTree(dir);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals("<p>" + i + "</p>", Files.readString(dir.resolve("pages/" + (i % 10) + "/page" + i + ".html")));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.company.core.saver;
+
+import cn.hutool.core.io.FileUtil;
+import com.company.ai.model.enums.CodeGenTypeEnum;
+import com.company.constant.AppConstant;
+import com.company.core.parser.CodeBlockCollector;
+import com.company.core.parser.HtmlCodeParser;
+import com.company.core.parser.StreamingCodeParser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HtmlCodeFileSaverTemplateTest {
+
+    private static final long APP_ID = 9_300_000L;
+
+    @AfterEach
+    void tearDown() {
+        String dirName = CodeGenTypeEnum.HTML.getValue() + "_" + APP_ID;
+        FileUtil.del(new File(AppConstant.CODE_OUTPUT_ROOT_DIR, dirName));
+        FileUtil.del(new File(AppConstant.CODE_OUTPUT_ROOT_DIR, ".versions/" + dirName));
+    }
+
+    @Test
+    void trimStreamedBlockLikeParser() {
+        String output = """
+                页面如下：
+                ```html
+
+                  <h1>标题</h1>
+                  <p>正文</p>
+
+                ```
+                """;
+        assertEquals(parse(output), saveStream(output));
+        assertEquals("<h1>标题</h1>\n  <p>正文</p>", saveStream(output));
+    }
+
+    @Test
+    void fallBackToTrimmedTextLikeParser() {
+        String output = "\n\n  <h1>没有代码块</h1>\n  \n";
+        assertEquals(parse(output), saveStream(output));
+        assertEquals("<h1>没有代码块</h1>", saveStream(output));
+    }
+
+    private static String parse(String output) {
+        CodeBlockCollector collector = new CodeBlockCollector();
+        StreamingCodeParser parser = new StreamingCodeParser(collector);
+        parser.feed(output);
+        parser.finish();
+        return new HtmlCodeParser().parse(collector).getHtmlCode();
+    }
+
+    /**
+     * 按 3 个字符一段流式保存，返回 index.html 的内容
+     */
+    private static String saveStream(String output) {
+        CodeFileStreamSession session = CodeFileSaverExecutor.openStream(CodeGenTypeEnum.HTML, APP_ID);
+        StreamingCodeParser parser = new StreamingCodeParser(session);
+        for (int i = 0; i < output.length(); i += 3) {
+            parser.feed(output.substring(i, Math.min(output.length(), i + 3)));
+        }
+        parser.finish();
+        File dir = session.commit();
+        return FileUtil.readString(new File(dir, "index.html"), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,123 @@
+package com.company.core.saver;
+
+import cn.hutool.core.io.FileUtil;
+import com.company.ai.model.ProjectCodeResult;
+import com.company.ai.model.ProjectFile;
+import com.company.ai.model.enums.CodeGenTypeEnum;
+import com.company.constant.AppConstant;
+import com.company.core.parser.StreamingCodeParser;
+import com.company.core.storage.PreviewDrafts;
+import com.company.exception.BusinessException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProjectFileSaverTemplateTest {
+
+    private static final long APP_ID = 9_200_000L;
+
+    @AfterEach
+    void tearDown() {
+        String dirName = CodeGenTypeEnum.PROJECT.getValue() + "_" + APP_ID;
+        FileUtil.del(new File(AppConstant.CODE_OUTPUT_ROOT_DIR, dirName));
+        FileUtil.del(new File(AppConstant.CODE_OUTPUT_ROOT_DIR, ".versions/" + dirName));
+    }
+
+    @Test
+    void saveFileTreeFromStream() {
+        CodeFileStreamSession session = CodeFileSaverExecutor.openStream(CodeGenTypeEnum.PROJECT, APP_ID);
+        StreamingCodeParser parser = new StreamingCodeParser(session);
+        String output = """
+                ```html index.html
+                <h1>首页</h1>
+                ```
+                ```js src/components/header.js
+                export const header = 1;
+                ```
+                ```js ../../escape.js
+                alert(1);
+                ```
+                ```css assets/css/main.css
+                h1 { color: red; }
+                """;
+        for (int i = 0; i < output.length(); i += 7) {
+            parser.feed(output.substring(i, Math.min(output.length(), i + 7)));
+        }
+        parser.finish();
+        File dir = session.commit();
+
+        assertEquals("<h1>首页</h1>\n", FileUtil.readString(new File(dir, "index.html"), StandardCharsets.UTF_8));
+        assertEquals("export const header = 1;\n", FileUtil.readString(new File(dir, "src/components/header.js"), StandardCharsets.UTF_8));
+        assertEquals("h1 { color: red; }\n", FileUtil.readString(new File(dir, "assets/css/main.css"), StandardCharsets.UTF_8));
+        assertFalse(new File(dir, "../../escape.js").exists());
+        assertFalse(new File(AppConstant.CODE_OUTPUT_ROOT_DIR, "escape.js").exists());
+    }
+
+    @Test
+    void previewFinishedFilesDuringStream() throws Exception {
+        String dirName = CodeGenTypeEnum.PROJECT.getValue() + "_" + APP_ID;
+        CodeFileStreamSession session = CodeFileSaverExecutor.openStream(CodeGenTypeEnum.PROJECT, APP_ID);
+        List<String> changes = new ArrayList<>();
+        session.setPreviewListener(changes::add);
+        StreamingCodeParser parser = new StreamingCodeParser(session);
+
+        parser.feed("```html index.html\n<h1>首页</h1>\n```\n```js src/main.js\nconsole");
+        // 写完的文件可以预览，还在写入的不可以；草稿中的文件还没有压缩副本
+        assertEquals(List.of(dirName), changes);
+        assertEquals("<h1>首页</h1>\n", new String(PreviewDrafts.getFile(dirName, "/index.html").readAllBytes(), StandardCharsets.UTF_8));
+        assertTrue(PreviewDrafts.covers(dirName, "/index.html.gz"));
+        assertNull(PreviewDrafts.getFile(dirName, "/index.html.gz"));
+        assertFalse(PreviewDrafts.covers(dirName, "/src/main.js"));
+
+        parser.feed(".log(1);\n```\n");
+        parser.finish();
+        assertEquals(2, changes.size());
+        session.commit();
+        // 发布后预览只读取发布的版本
+        assertFalse(PreviewDrafts.covers(dirName, "/index.html"));
+    }
+
+    @Test
+    void dropPreviewDraftOnAbort() {
+        String dirName = CodeGenTypeEnum.PROJECT.getValue() + "_" + APP_ID;
+        CodeFileStreamSession session = CodeFileSaverExecutor.openStream(CodeGenTypeEnum.PROJECT, APP_ID);
+        List<String> changes = new ArrayList<>();
+        session.setPreviewListener(changes::add);
+        StreamingCodeParser parser = new StreamingCodeParser(session);
+
+        parser.feed("```html index.html\n<h1>首页</h1>\n```\n");
+        assertTrue(PreviewDrafts.covers(dirName, "/index.html"));
+        session.abort();
+
+        assertFalse(PreviewDrafts.covers(dirName, "/index.html"));
+        assertEquals(2, changes.size());
+    }
+
+    @Test
+    void saveManyFilesConcurrently() {
+        ProjectCodeResult result = new ProjectCodeResult();
+        result.getFiles().add(new ProjectFile("index.html", "<h1>首页</h1>"));
+        for (int i = 0; i < 200; i++) {
+            result.getFiles().add(new ProjectFile("src/modules/m" + i + ".js", "export const m = " + i + ";"));
+        }
+        result.getFiles().add(new ProjectFile("/etc/escape.js", "alert(1);"));
+
+        File dir = CodeFileSaverExecutor.executeSaver(CodeGenTypeEnum.PROJECT, result, APP_ID);
+
+        assertEquals(200, new File(dir, "src/modules").list().length);
+        assertEquals("export const m = 199;", FileUtil.readString(new File(dir, "src/modules/m199.js"), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void requireIndexFile() {
+        ProjectCodeResult result = new ProjectCodeResult();
+        result.getFiles().add(new ProjectFile("src/main.js", "console.log(1);"));
+        assertThrows(BusinessException.class, () -> CodeFileSaverExecutor.executeSaver(CodeGenTypeEnum.PROJECT, result, APP_ID));
+    }
+}
@@ -0,0 +1,72 @@
+package com.company.core.storage;
+
+import cn.hutool.core.io.FileUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CodeSegmentTest {
+
+    private Path tempDir;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        tempDir = Files.createTempDirectory("code-segment");
+    }
+
+    @AfterEach
+    void tearDown() {
+        FileUtil.del(tempDir.toFile());
+    }
+
+    @Test
+    void writeAndReadFiles() throws Exception {
+        Path sourceDir = tempDir.resolve("source");
+        Files.createDirectories(sourceDir.resolve("assets"));
+        Files.writeString(sourceDir.resolve("index.html"), "<h1>你好</h1>", StandardCharsets.UTF_8);
+        Files.writeString(sourceDir.resolve("assets/style.css"), "h1 { color: blue; }", StandardCharsets.UTF_8);
+        Files.write(sourceDir.resolve("empty.js"), new byte[0]);
+        Path segmentFile = tempDir.resolve("1.seg");
+
+        CodeSegment.write(sourceDir, segmentFile);
+        CodeSegment segment = CodeSegment.open(segmentFile);
+
+        assertEquals("<h1>你好</h1>", new String(segment.getFile("index.html").readAllBytes(), StandardCharsets.UTF_8));
+        assertEquals("h1 { color: blue; }", new String(segment.getFile("assets/style.css").readAllBytes(), StandardCharsets.UTF_8));
+        assertEquals(0, segment.getFile("empty.js").length());
+        assertNull(segment.getFile("missing.html"));
+    }
+
+    @Test
+    void transferRange() throws Exception {
+        Path sourceDir = tempDir.resolve("source");
+        Files.createDirectories(sourceDir);
+        Files.writeString(sourceDir.resolve("a.txt"), "0123456789", StandardCharsets.UTF_8);
+        Files.writeString(sourceDir.resolve("b.txt"), "abcdefghij", StandardCharsets.UTF_8);
+        Path segmentFile = tempDir.resolve("1.seg");
+        CodeSegment.write(sourceDir, segmentFile);
+
+        StoredFile file = CodeSegment.open(segmentFile).getFile("b.txt");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        file.transferTo(2, 3, Channels.newChannel(out));
+
+        assertEquals("cde", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void rejectCorruptedFile() throws Exception {
+        Path segmentFile = tempDir.resolve("1.seg");
+        Files.write(segmentFile, new byte[64]);
+
+        assertThrows(IOException.class, () -> CodeSegment.open(segmentFile));
+    }
+}
@@ -0,0 +1,47 @@
+package com.company.core.storage;
+
+import cn.hutool.core.io.FileUtil;
+import com.company.constant.AppConstant;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DirectoryCodeStorageTest {
+
+    private static final String DIR_NAME = "html_9400000";
+
+    private final DirectoryCodeStorage storage = new DirectoryCodeStorage();
+
+    @AfterEach
+    void tearDown() {
+        FileUtil.del(new File(AppConstant.CODE_OUTPUT_ROOT_DIR, DIR_NAME));
+        FileUtil.del(new File(AppConstant.CODE_OUTPUT_ROOT_DIR, ".versions/" + DIR_NAME));
+    }
+
+    @Test
+    void lastModifiedFollowsPublishNotSharedContent() throws Exception {
+        publish("<h1>A</h1>");
+        Thread.sleep(50);
+        publish("<h1>B</h1>");
+        long secondPublished = storage.getFile(DIR_NAME, "/index.html").lastModified();
+        Thread.sleep(50);
+        // 内容与第一个版本相同，文件硬链接到同一个内容文件
+        publish("<h1>A</h1>");
+
+        StoredFile current = storage.getFile(DIR_NAME, "/index.html");
+        assertEquals("<h1>A</h1>", new String(current.readAllBytes(), StandardCharsets.UTF_8));
+        assertTrue(current.lastModified() > secondPublished);
+    }
+
+    private void publish(String html) throws Exception {
+        Path stagingDir = storage.createStagingDir(DIR_NAME);
+        Files.writeString(stagingDir.resolve("index.html"), html);
+        storage.publish(DIR_NAME, stagingDir);
+    }
+}
@@ -0,0 +1,234 @@
+package com.company.stub;
+
+import cn.hutool.core.io.resource.ResourceUtil;
+import cn.hutool.json.JSONUtil;
+import com.company.ai.model.enums.CodeGenTypeEnum;
+import com.company.core.parser.CodeParserExecutor;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 本地 OpenAI 兼容模型服务桩，用于压测和不消耗额度的联调
+ * 回放录制的 HTML / 多文件生成结果（按系统提示词判断类型）：流式请求按设定的 token 速率逐段返回，可加入随机抖动、
+ * 请求失败（返回 500）和流中断开；非流式请求返回结构化结果的 JSON。随机数按请求序号和种子生成，同样的配置结果可重复。
+ * 直接运行 main 方法可在固定端口启动，供本地配置 base-url 指向它
+ */
+@Slf4j
+public class StubLlmServer implements AutoCloseable {
+
+    /**
+     * 每个 token 的字符数
+     */
+    private static final int CHARS_PER_TOKEN = 4;
+
+    private static final String HTML_RESPONSE = ResourceUtil.readUtf8Str("stub/html-response.md");
+
+    private static final String MULTI_FILE_RESPONSE = ResourceUtil.readUtf8Str("stub/multi-file-response.md");
+
+    private final HttpServer server;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final AtomicLong requestCount = new AtomicLong();
+
+    private final AtomicLong failureCount = new AtomicLong();
+
+    private volatile int tokensPerSecond = 200;
+
+    private volatile long firstTokenDelayMillis = 0;
+
+    private volatile long jitterMillis = 0;
+
+    private volatile double failureRate = 0;
+
+    private volatile double midStreamFailureRate = 0;
+
+    private volatile long seed = 42;
+
+    /**
+     * @param port 端口，0 为随机端口
+     */
+    public StubLlmServer(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        server.setExecutor(executor);
+        server.createContext("/chat/completions", this::handle);
+        server.createContext("/v1/chat/completions", this::handle);
+    }
+
+    public static void main(String[] args) throws IOException {
+        StubLlmServer stub = new StubLlmServer(args.length > 0 ? Integer.parseInt(args[0]) : 18080)
+                .tokensPerSecond(Integer.parseInt(System.getProperty("stub.tokensPerSecond", "200")))
+                .jitterMillis(Long.parseLong(System.getProperty("stub.jitterMillis", "0")))
+                .failureRate(Double.parseDouble(System.getProperty("stub.failureRate", "0")));
+        stub.start();
+        log.info("模型服务桩已启动：{}", stub.getBaseUrl());
+    }
+
+    public StubLlmServer start() {
+        server.start();
+        return this;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    public long getFailureCount() {
+        return failureCount.get();
+    }
+
+    /**
+     * 流式返回速率（每秒 token 数），0 为不限速
+     */
+    public StubLlmServer tokensPerSecond(int tokensPerSecond) {
+        this.tokensPerSecond = tokensPerSecond;
+        return this;
+    }
+
+    /**
+     * 首 token 之前的固定延迟
+     */
+    public StubLlmServer firstTokenDelayMillis(long firstTokenDelayMillis) {
+        this.firstTokenDelayMillis = firstTokenDelayMillis;
+        return this;
+    }
+
+    /**
+     * 每个 token 额外的随机延迟上限
+     */
+    public StubLlmServer jitterMillis(long jitterMillis) {
+        this.jitterMillis = jitterMillis;
+        return this;
+    }
+
+    /**
+     * 请求直接失败（HTTP 500）的比例
+     */
+    public StubLlmServer failureRate(double failureRate) {
+        this.failureRate = failureRate;
+        return this;
+    }
+
+    /**
+     * 流式返回到一半断开连接的比例
+     */
+    public StubLlmServer midStreamFailureRate(double midStreamFailureRate) {
+        this.midStreamFailureRate = midStreamFailureRate;
+        return this;
+    }
+
+    public StubLlmServer seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * 正常结束时关闭 exchange；流中断开时异常抛给 HttpServer，由它直接关闭连接（不发送分块结束标记）
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            long requestIndex = requestCount.incrementAndGet();
+            Random random = new Random(seed * 31 + requestIndex);
+            String body;
+            try (InputStream inputStream = exchange.getRequestBody()) {
+                body = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            if (random.nextDouble() < failureRate) {
+                failureCount.incrementAndGet();
+                byte[] error = "{\"error\":{\"message\":\"stub injected failure\",\"type\":\"server_error\"}}".getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(500, error.length);
+                exchange.getResponseBody().write(error);
+                exchange.close();
+                return;
+            }
+            // 多文件生成的系统提示词要求拆分出 style.css
+            CodeGenTypeEnum codeGenType = body.contains("style.css") ? CodeGenTypeEnum.MULTI_FILE : CodeGenTypeEnum.HTML;
+            String content = codeGenType == CodeGenTypeEnum.MULTI_FILE ? MULTI_FILE_RESPONSE : HTML_RESPONSE;
+            if (body.contains("\"stream\":true") || body.contains("\"stream\" : true")) {
+                stream(exchange, content, requestIndex, random);
+            } else {
+                complete(exchange, codeGenType, content, requestIndex);
+            }
+        } catch (IOException e) {
+            exchange.close();
+            throw e;
+        }
+        exchange.close();
+    }
+
+    private void stream(HttpExchange exchange, String content, long requestIndex, Random random) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream out = exchange.getResponseBody();
+        String id = "chatcmpl-stub-" + requestIndex;
+        int tokenCount = (content.length() + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+        int failAt = random.nextDouble() < midStreamFailureRate ? random.nextInt(tokenCount) : -1;
+        long intervalNanos = tokensPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / tokensPerSecond : 0;
+        long nextAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(firstTokenDelayMillis);
+        for (int i = 0; i < tokenCount; i++) {
+            if (i == failAt) {
+                // 直接断开连接，模拟上游中断
+                failureCount.incrementAndGet();
+                throw new IllegalStateException("stub injected disconnect");
+            }
+            long jitter = jitterMillis > 0 ? TimeUnit.MILLISECONDS.toNanos(random.nextLong(jitterMillis + 1)) : 0;
+            sleepUntil(nextAt + jitter);
+            nextAt += intervalNanos;
+            String token = content.substring(i * CHARS_PER_TOKEN, Math.min(content.length(), (i + 1) * CHARS_PER_TOKEN));
+            writeEvent(out, "{\"id\":\"" + id + "\",\"object\":\"chat.completion.chunk\",\"created\":0,\"model\":\"stub\","
+                    + "\"choices\":[{\"index\":0,\"delta\":{\"content\":" + JSONUtil.quote(token) + "},\"finish_reason\":null}]}");
+        }
+        writeEvent(out, "{\"id\":\"" + id + "\",\"object\":\"chat.completion.chunk\",\"created\":0,\"model\":\"stub\","
+                + "\"choices\":[{\"index\":0,\"delta\":{},\"finish_reason\":\"stop\"}],"
+                + "\"usage\":{\"prompt_tokens\":1,\"completion_tokens\":" + tokenCount + ",\"total_tokens\":" + (tokenCount + 1) + "}}");
+        writeEvent(out, "[DONE]");
+    }
+
+    private void complete(HttpExchange exchange, CodeGenTypeEnum codeGenType, String content, long requestIndex) throws IOException {
+        // 非流式接口返回结构化结果，内容为结果对象的 JSON
+        String result = JSONUtil.toJsonStr(CodeParserExecutor.executeParser(content, codeGenType));
+        byte[] response = ("{\"id\":\"chatcmpl-stub-" + requestIndex + "\",\"object\":\"chat.completion\",\"created\":0,\"model\":\"stub\","
+                + "\"choices\":[{\"index\":0,\"message\":{\"role\":\"assistant\",\"content\":" + JSONUtil.quote(result) + "},"
+                + "\"finish_reason\":\"stop\"}],\"usage\":{\"prompt_tokens\":1,\"completion_tokens\":1,\"total_tokens\":2}}")
+                .getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, response.length);
+        exchange.getResponseBody().write(response);
+    }
+
+    private static void writeEvent(OutputStream out, String data) throws IOException {
+        out.write(("data: " + data + "\n\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private static void sleepUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}